@@ -78,15 +78,25 @@ public abstract class LessSource {
       return importedSources;
     }
 
+    /**
+     * Next compilation collects imported sources into a new collection.
+     * Collections returned by {@link #getImportedSources()} before this call
+     * keep their content.
+     */
+    public void resetImportedSources() {
+      importedSources = new ArrayList<LessSource>();
+    }
+
     public long getLastModified() {
       return lastModified;
     }
 
-    public long getLatestModified() {
+    public synchronized long getLatestModified() {
       return latestModified;
     }
 
-    public void setLatestModified(long latestModified) {
+    // imported sources may be read in parallel, each of them propagates its timestamp up
+    public synchronized void setLatestModified(long latestModified) {
       this.latestModified = latestModified;
       if (parent != null && latestModified > parent.getLatestModified()) {
         parent.setLatestModified(latestModified);
@@ -269,11 +279,11 @@ public abstract class LessSource {
       if (getClass() != obj.getClass())
         return false;
       FileSource other = (FileSource) obj;
-      File absoluteInputFile = getCanonicalFile();
-      if (absoluteInputFile == null) {
+      File canonicalInputFile = getCanonicalFile();
+      if (canonicalInputFile == null) {
         if (other.inputFile != null)
           return false;
-      } else if (!absoluteInputFile.equals(other.inputFile.getAbsoluteFile()))
+      } else if (!canonicalInputFile.equals(other.getCanonicalFile()))
         return false;
       return true;
     }
@@ -0,0 +1,131 @@
+package com.github.sommeri.less4j.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.github.sommeri.less4j.Less4jException;
+import com.github.sommeri.less4j.LessCompiler;
+import com.github.sommeri.less4j.LessCompiler.CompilationResult;
+import com.github.sommeri.less4j.LessCompiler.Configuration;
+import com.github.sommeri.less4j.LessSource;
+import com.github.sommeri.less4j.core.cache.LruImportedAstCache;
+
+/**
+ * Compiles many style sheets in parallel. All compilations share one compiler
+ * and, by default, one imported style sheets cache - files imported by
+ * multiple style sheets are parsed only once per batch (unless two threads
+ * happen to need them at exactly the same time).
+ *
+ * Compilation errors do not stop the batch, each source gets its own
+ * {@link SourceCompilationResult}.
+ *
+ */
+public class BatchLessCompiler {
+
+  private final LessCompiler compiler;
+  private final int parallelism;
+
+  public BatchLessCompiler() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  public BatchLessCompiler(int parallelism) {
+    this(new LessCompilerEngine(new LruImportedAstCache()), parallelism);
+  }
+
+  /**
+   * @param compiler must be thread safe if parallelism is bigger then 1.
+   * @param parallelism maximum number of concurrently compiled sources. 
+   */
+  public BatchLessCompiler(LessCompiler compiler, int parallelism) {
+    if (parallelism < 1)
+      throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+
+    this.compiler = compiler;
+    this.parallelism = parallelism;
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  public List<SourceCompilationResult> compileAll(Collection<? extends LessSource> sources) {
+    return compileAll(sources, null);
+  }
+
+  /**
+   * @return results in the same order as sources were iterated.
+   */
+  public List<SourceCompilationResult> compileAll(Collection<? extends LessSource> sources, Configuration options) {
+    int threads = Math.min(parallelism, sources.size());
+    if (threads <= 1)
+      return compileSequentially(sources, options);
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<SourceCompilationResult>> futures = new ArrayList<Future<SourceCompilationResult>>();
+      for (LessSource source : sources) {
+        futures.add(executor.submit(createTask(source, options)));
+      }
+
+      List<SourceCompilationResult> result = new ArrayList<SourceCompilationResult>();
+      for (Future<SourceCompilationResult> future : futures) {
+        result.add(waitFor(future));
+      }
+      return result;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private List<SourceCompilationResult> compileSequentially(Collection<? extends LessSource> sources, Configuration options) {
+    List<SourceCompilationResult> result = new ArrayList<SourceCompilationResult>();
+    for (LessSource source : sources) {
+      result.add(compile(source, options));
+    }
+    return result;
+  }
+
+  private Callable<SourceCompilationResult> createTask(final LessSource source, final Configuration options) {
+    return new Callable<SourceCompilationResult>() {
+
+      @Override
+      public SourceCompilationResult call() {
+        return compile(source, options);
+      }
+
+    };
+  }
+
+  private SourceCompilationResult compile(LessSource source, Configuration options) {
+    try {
+      CompilationResult compiled = compiler.compile(source, options);
+      return new SourceCompilationResult(source, compiled);
+    } catch (Less4jException ex) {
+      return new SourceCompilationResult(source, ex);
+    }
+  }
+
+  private SourceCompilationResult waitFor(Future<SourceCompilationResult> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Batch compilation was interrupted.", ex);
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      if (cause instanceof Error)
+        throw (Error) cause;
+      throw new IllegalStateException(cause);
+    }
+  }
+
+}
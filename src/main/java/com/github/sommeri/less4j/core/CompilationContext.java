@@ -0,0 +1,58 @@
+package com.github.sommeri.less4j.core;
+
+import com.github.sommeri.less4j.LessCompiler.Configuration;
+import com.github.sommeri.less4j.LessSource;
+import com.github.sommeri.less4j.core.compiler.LibrarySnapshot;
+import com.github.sommeri.less4j.core.problems.ProblemsHandler;
+
+/**
+ * Everything that belongs to one compilation. The {@link LessCompilerEngine} is
+ * shared between threads and must not keep per-compilation data in its fields,
+ * so it creates new context for each compiled source and passes it around instead.
+ *
+ */
+public class CompilationContext {
+
+  private final LessSource source;
+  private final Configuration options;
+  private final LibrarySnapshot library;
+  private final ProblemsHandler problemsHandler = new ProblemsHandler();
+
+  public CompilationContext(LessSource source, Configuration options) {
+    this(source, options, null);
+  }
+
+  public CompilationContext(LessSource source, Configuration options, LibrarySnapshot library) {
+    super();
+    this.source = source;
+    this.options = options;
+    this.library = library;
+  }
+
+  public LessSource getSource() {
+    return source;
+  }
+
+  /**
+   * @return compilation options or <code>null</code> if none were supplied.
+   */
+  public Configuration getOptions() {
+    return options;
+  }
+
+  /**
+   * @return precompiled library or <code>null</code> if none was supplied.
+   */
+  public LibrarySnapshot getLibrary() {
+    return library;
+  }
+
+  public LessSource getCssResultLocation() {
+    return options == null ? null : options.getCssResultLocation();
+  }
+
+  public ProblemsHandler getProblemsHandler() {
+    return problemsHandler;
+  }
+
+}
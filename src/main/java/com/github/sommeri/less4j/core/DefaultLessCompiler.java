@@ -7,53 +7,66 @@ import com.github.sommeri.less4j.Less4jException;
 import com.github.sommeri.less4j.LessCompiler;
 import com.github.sommeri.less4j.LessSource;
 
+/**
+ * Thread safe compiler. All instances share one {@link LessCompilerEngine},
+ * so creating and throwing away default compilers is cheap.
+ *
+ */
 public class DefaultLessCompiler implements LessCompiler {
 
+  private static final LessCompilerEngine SHARED_ENGINE = new LessCompilerEngine();
+
+  private final LessCompilerEngine engine;
+
+  public DefaultLessCompiler() {
+    this(SHARED_ENGINE);
+  }
+
+  public DefaultLessCompiler(LessCompilerEngine engine) {
+    this.engine = engine;
+  }
+
   @Override
   public CompilationResult compile(String lessContent) throws Less4jException {
-    ThreadUnsafeLessCompiler compiler = new ThreadUnsafeLessCompiler();
-    return compiler.compile(lessContent);
+    return engine.compile(lessContent);
   }
 
   @Override
   public CompilationResult compile(String lessContent, Configuration options) throws Less4jException {
-    ThreadUnsafeLessCompiler compiler = new ThreadUnsafeLessCompiler();
-    return compiler.compile(lessContent, options);
+    return engine.compile(lessContent, options);
   }
 
   @Override
   public CompilationResult compile(File lessFile) throws Less4jException {
-    ThreadUnsafeLessCompiler compiler = new ThreadUnsafeLessCompiler();
-    return compiler.compile(lessFile);
+    return engine.compile(lessFile);
   }
 
   @Override
   public CompilationResult compile(URL lessURL) throws Less4jException {
-    ThreadUnsafeLessCompiler compiler = new ThreadUnsafeLessCompiler();
-    return compiler.compile(lessURL);
+    return engine.compile(lessURL);
   }
 
   @Override
   public CompilationResult compile(URL lessURL, Configuration options) throws Less4jException {
-    ThreadUnsafeLessCompiler compiler = new ThreadUnsafeLessCompiler();
-    return compiler.compile(lessURL, options);
+    return engine.compile(lessURL, options);
   }
 
   public CompilationResult compile(LessSource source) throws Less4jException {
-    ThreadUnsafeLessCompiler compiler = new ThreadUnsafeLessCompiler();
-    return compiler.compile(source);
+    return engine.compile(source);
   }
 
   @Override
   public CompilationResult compile(File lessFile, Configuration options) throws Less4jException {
-    ThreadUnsafeLessCompiler compiler = new ThreadUnsafeLessCompiler();
-    return compiler.compile(lessFile, options);
+    return engine.compile(lessFile, options);
   }
 
   @Override
   public CompilationResult compile(LessSource source, Configuration options) throws Less4jException {
-    ThreadUnsafeLessCompiler compiler = new ThreadUnsafeLessCompiler();
-    return compiler.compile(source, options);
+    return engine.compile(source, options);
+  }
+
+  public LessCompilerEngine getEngine() {
+    return engine;
   }
 
 }
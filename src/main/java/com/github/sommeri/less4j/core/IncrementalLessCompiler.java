@@ -0,0 +1,243 @@
+package com.github.sommeri.less4j.core;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import com.github.sommeri.less4j.Less4jException;
+import com.github.sommeri.less4j.LessCompiler;
+import com.github.sommeri.less4j.LessCompiler.CompilationResult;
+import com.github.sommeri.less4j.LessCompiler.Configuration;
+import com.github.sommeri.less4j.LessSource;
+import com.github.sommeri.less4j.LessSource.AbstractHierarchicalSource;
+import com.github.sommeri.less4j.LessSource.FileSource;
+
+/**
+ * Compiles a set of entry style sheets and remembers which files each of them
+ * imported. When some files change, only entry style sheets that import them
+ * directly or transitively are compiled again. Everything else keeps its
+ * previous result.
+ *
+ * Imports are known only for sources that extend
+ * {@link AbstractHierarchicalSource}. Any other entry point depends only on
+ * itself.
+ *
+ */
+public class IncrementalLessCompiler {
+
+  private final LessCompiler compiler;
+  private final Map<LessSource, EntryPoint> entryPoints = new LinkedHashMap<LessSource, EntryPoint>();
+  // imported source -> entry points that import it
+  private final Map<LessSource, Set<LessSource>> dependents = new HashMap<LessSource, Set<LessSource>>();
+
+  public IncrementalLessCompiler() {
+    this(new DefaultLessCompiler());
+  }
+
+  public IncrementalLessCompiler(LessCompiler compiler) {
+    this.compiler = compiler;
+  }
+
+  public synchronized void addEntryPoint(LessSource source) {
+    addEntryPoint(source, null);
+  }
+
+  public synchronized void addEntryPoint(LessSource source, Configuration options) {
+    removeEntryPoint(source);
+    entryPoints.put(source, new EntryPoint(source, options));
+  }
+
+  public synchronized void removeEntryPoint(LessSource source) {
+    EntryPoint entryPoint = entryPoints.remove(source);
+    if (entryPoint != null)
+      forgetDependencies(entryPoint);
+  }
+
+  public synchronized Set<LessSource> getEntryPoints() {
+    return new LinkedHashSet<LessSource>(entryPoints.keySet());
+  }
+
+  /**
+   * Marks entry points affected by changed files for recompilation.
+   *
+   * @return entry points that are either among changed sources or import
+   *         some of them.
+   */
+  public synchronized Set<LessSource> sourcesChanged(Collection<? extends LessSource> changedSources) {
+    Set<LessSource> result = new LinkedHashSet<LessSource>();
+    for (LessSource changed : changedSources) {
+      if (entryPoints.containsKey(changed))
+        result.add(changed);
+
+      Set<LessSource> importing = dependents.get(changed);
+      if (importing != null)
+        result.addAll(importing);
+    }
+
+    for (LessSource affected : result) {
+      entryPoints.get(affected).dirty = true;
+    }
+    return result;
+  }
+
+  /**
+   * Finds files modified since they were last read by compiler. Only files can
+   * be checked, other sources must be reported through
+   * {@link #sourcesChanged(Collection)}.
+   */
+  public synchronized Set<LessSource> findModifiedFiles() {
+    Set<LessSource> result = new LinkedHashSet<LessSource>();
+    for (EntryPoint entryPoint : entryPoints.values()) {
+      for (Entry<LessSource, Long> entry : entryPoint.lastModified.entrySet()) {
+        LessSource source = entry.getKey();
+        if (source instanceof FileSource) {
+          long current = ((FileSource) source).getInputFile().lastModified();
+          if (current != entry.getValue())
+            result.add(source);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Compiles all entry points that were never compiled or were affected by
+   * changes since their last compilation.
+   *
+   * @return results of compiled entry points in the order in which they were
+   *         added. Unchanged entry points are not part of the result.
+   */
+  public synchronized Map<LessSource, SourceCompilationResult> compileChanged() {
+    Map<LessSource, SourceCompilationResult> result = new LinkedHashMap<LessSource, SourceCompilationResult>();
+    for (EntryPoint entryPoint : entryPoints.values()) {
+      if (entryPoint.dirty) {
+        compile(entryPoint);
+        result.put(entryPoint.source, entryPoint.result);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Convenience method, detects modified files and compiles affected entry
+   * points.
+   */
+  public synchronized Map<LessSource, SourceCompilationResult> compileModified() {
+    sourcesChanged(findModifiedFiles());
+    return compileChanged();
+  }
+
+  /**
+   * @return the last compilation result or <code>null</code> if the entry point
+   *         was not compiled yet.
+   */
+  public synchronized SourceCompilationResult getResult(LessSource entryPoint) {
+    EntryPoint entry = entryPoints.get(entryPoint);
+    return entry == null ? null : entry.result;
+  }
+
+  /**
+   * @return all sources imported by entry point during its last compilation.
+   */
+  public synchronized Set<LessSource> getDependencies(LessSource entryPoint) {
+    EntryPoint entry = entryPoints.get(entryPoint);
+    if (entry == null)
+      return Collections.emptySet();
+
+    return Collections.unmodifiableSet(entry.lastModified.keySet());
+  }
+
+  private void compile(EntryPoint entryPoint) {
+    LessSource source = entryPoint.source;
+    // hierarchical source would keep imports from all previous compilations
+    if (source instanceof AbstractHierarchicalSource)
+      ((AbstractHierarchicalSource) source).resetImportedSources();
+
+    try {
+      CompilationResult compiled = compiler.compile(source, entryPoint.options);
+      entryPoint.result = new SourceCompilationResult(source, compiled);
+    } catch (Less4jException ex) {
+      entryPoint.result = new SourceCompilationResult(source, ex);
+    }
+
+    // dependencies of the previous compilation are replaced only once the compiler returned
+    Map<LessSource, Long> lastModified = new HashMap<LessSource, Long>();
+    rememberLastModified(lastModified, source);
+    Collection<LessSource> importedSources = getImportedSources(source);
+    if (importedSources != null) {
+      for (LessSource imported : importedSources) {
+        rememberLastModified(lastModified, imported);
+      }
+    }
+
+    forgetDependencies(entryPoint);
+    entryPoint.lastModified = lastModified;
+    if (importedSources != null) {
+      for (LessSource imported : importedSources) {
+        addDependent(imported, source);
+      }
+    }
+    entryPoint.dirty = false;
+  }
+
+  private Collection<LessSource> getImportedSources(LessSource source) {
+    if (!(source instanceof AbstractHierarchicalSource))
+      return null;
+
+    return ((AbstractHierarchicalSource) source).getImportedSources();
+  }
+
+  private void rememberLastModified(Map<LessSource, Long> lastModifiedBySource, LessSource source) {
+    long lastModified = 0;
+    if (source instanceof AbstractHierarchicalSource)
+      lastModified = ((AbstractHierarchicalSource) source).getLastModified();
+
+    // the same file may be imported multiple times, only some of them were read
+    Long previous = lastModifiedBySource.get(source);
+    if (previous == null || previous < lastModified)
+      lastModifiedBySource.put(source, lastModified);
+  }
+
+  private void addDependent(LessSource imported, LessSource entryPoint) {
+    Set<LessSource> importing = dependents.get(imported);
+    if (importing == null) {
+      importing = new HashSet<LessSource>();
+      dependents.put(imported, importing);
+    }
+    importing.add(entryPoint);
+  }
+
+  private void forgetDependencies(EntryPoint entryPoint) {
+    for (LessSource imported : entryPoint.lastModified.keySet()) {
+      Set<LessSource> importing = dependents.get(imported);
+      if (importing != null) {
+        importing.remove(entryPoint.source);
+        if (importing.isEmpty())
+          dependents.remove(imported);
+      }
+    }
+    entryPoint.lastModified = new HashMap<LessSource, Long>();
+  }
+
+  private static class EntryPoint {
+
+    private final LessSource source;
+    private final Configuration options;
+    private Map<LessSource, Long> lastModified = new HashMap<LessSource, Long>();
+    private SourceCompilationResult result;
+    private boolean dirty = true;
+
+    public EntryPoint(LessSource source, Configuration options) {
+      this.source = source;
+      this.options = options;
+    }
+
+  }
+
+}
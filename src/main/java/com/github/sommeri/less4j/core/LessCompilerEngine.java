@@ -0,0 +1,231 @@
+package com.github.sommeri.less4j.core;
+
+import java.io.File;
+import java.net.URL;
+import java.util.concurrent.ExecutorService;
+
+import com.github.sommeri.less4j.Less4jException;
+import com.github.sommeri.less4j.LessCompiler;
+import com.github.sommeri.less4j.LessSource;
+import com.github.sommeri.less4j.LessSource.CannotReadFile;
+import com.github.sommeri.less4j.LessSource.FileNotFound;
+import com.github.sommeri.less4j.core.ast.ASTCssNode;
+import com.github.sommeri.less4j.core.ast.StyleSheet;
+import com.github.sommeri.less4j.core.cache.ImportedAstCache;
+import com.github.sommeri.less4j.core.cache.NullImportedAstCache;
+import com.github.sommeri.less4j.core.cache.ParsedImport;
+import com.github.sommeri.less4j.core.compiler.CacheStatistics;
+import com.github.sommeri.less4j.core.compiler.LessToCssCompiler;
+import com.github.sommeri.less4j.core.compiler.LibrarySnapshot;
+import com.github.sommeri.less4j.core.compiler.StageTimings;
+import com.github.sommeri.less4j.core.compiler.stages.ConstantsFolder;
+import com.github.sommeri.less4j.core.parser.ANTLRParser;
+import com.github.sommeri.less4j.core.parser.ASTBuilder;
+import com.github.sommeri.less4j.core.problems.GeneralProblem;
+import com.github.sommeri.less4j.core.problems.ProblemsHandler;
+import com.github.sommeri.less4j.utils.CssPrinter;
+
+/**
+ * Long-lived compiler that can be shared between threads. Its mutable fields,
+ * imported AST cache, stage timings and cache statistics, are thread safe and
+ * shared by all compilations done by the engine. Functions tables and
+ * lexer/parser DFA tables are static and built only once. Everything else
+ * that changes during compilation lives in {@link CompilationContext} created
+ * anew for each compiled source.
+ * 
+ * {@link DefaultLessCompiler}s created without an engine share one static
+ * engine, so its timings and statistics sum up all their compilations in
+ * the JVM. Create own engine to measure own compilations only.
+ *
+ */
+public class LessCompilerEngine implements LessCompiler {
+
+  private final ANTLRParser parser = new ANTLRParser();
+  private final ImportedAstCache importedAstCache;
+  private final ExecutorService importsExecutor;
+  private final StageTimings timings = new StageTimings();
+  private final CacheStatistics cacheStatistics = new CacheStatistics();
+
+  public LessCompilerEngine() {
+    this(new NullImportedAstCache());
+  }
+
+  /**
+   * @param importedAstCache keeps parsed imported files between compilations. It 
+   *        is shared by all threads using this engine. 
+   */
+  public LessCompilerEngine(ImportedAstCache importedAstCache) {
+    this(importedAstCache, null);
+  }
+
+  /**
+   * @param importsExecutor reads and parses sibling imported files
+   *        concurrently. The engine does not shut it down. Use
+   *        <code>null</code> to read imports one by one in the compiling
+   *        thread.
+   */
+  public LessCompilerEngine(ImportedAstCache importedAstCache, ExecutorService importsExecutor) {
+    this.importedAstCache = importedAstCache;
+    this.importsExecutor = importsExecutor;
+  }
+
+  @Override
+  public CompilationResult compile(String lessContent) throws Less4jException {
+    return compile(new LessSource.StringSource(lessContent));
+  }
+
+  @Override
+  public CompilationResult compile(String lessContent, Configuration options) throws Less4jException {
+    return compile(new LessSource.StringSource(lessContent), options);
+  }
+
+  @Override
+  public CompilationResult compile(File lessFile) throws Less4jException {
+    return compile(new LessSource.FileSource(lessFile));
+  }
+
+  @Override
+  public CompilationResult compile(File lessFile, Configuration options) throws Less4jException {
+    return compile(new LessSource.FileSource(lessFile), options);
+  }
+
+  @Override
+  public CompilationResult compile(URL lessURL) throws Less4jException {
+    return compile(new LessSource.URLSource(lessURL));
+  }
+
+  @Override
+  public CompilationResult compile(URL lessURL, Configuration options) throws Less4jException {
+    return compile(new LessSource.URLSource(lessURL), options);
+  }
+
+  @Override
+  public CompilationResult compile(LessSource source) throws Less4jException {
+    return compile(source, null);
+  }
+
+  @Override
+  public CompilationResult compile(LessSource source, Configuration options) throws Less4jException {
+    return compile(source, options, null);
+  }
+
+  /**
+   * Compiles the source on top of precompiled library, see
+   * {@link #compileLibrary(LessSource)}.
+   */
+  public CompilationResult compile(LessSource source, Configuration options, LibrarySnapshot library) throws Less4jException {
+    CompilationContext context = new CompilationContext(source, options, library);
+    CompilationResult compilationResult = doCompile(context);
+    ProblemsHandler problemsHandler = context.getProblemsHandler();
+    if (problemsHandler.hasErrors()) {
+      throw new Less4jException(problemsHandler.getErrors(), compilationResult);
+    }
+    return compilationResult;
+  }
+
+  /**
+   * Parses the library and extracts its variables and mixins. The result can be
+   * shared by any number of compilations in any number of threads, see
+   * {@link #compile(LessSource, Configuration, LibrarySnapshot)}.
+   */
+  public LibrarySnapshot compileLibrary(LessSource source) throws Less4jException {
+    CompilationContext context = new CompilationContext(source, null);
+    StyleSheet lessStyleSheet = parse(readContent(source), context);
+    LessToCssCompiler compiler = new LessToCssCompiler(context.getProblemsHandler(), importedAstCache, importsExecutor);
+    LibrarySnapshot library = compiler.compileLibrary(lessStyleSheet, source);
+    timings.add(compiler.getTimings());
+
+    ProblemsHandler problemsHandler = context.getProblemsHandler();
+    if (problemsHandler.hasErrors()) {
+      throw new Less4jException(problemsHandler.getErrors(), new CompilationResult(null));
+    }
+    return library;
+  }
+
+  private CompilationResult doCompile(CompilationContext context) throws Less4jException {
+    LessSource source = context.getSource();
+    StyleSheet lessStyleSheet = parse(readContent(source), context);
+    LessToCssCompiler compiler = new LessToCssCompiler(context.getProblemsHandler(), importedAstCache, importsExecutor);
+    ASTCssNode cssStyleSheet = compiler.compileToCss(lessStyleSheet, source, context.getLibrary());
+    timings.add(compiler.getTimings());
+    cacheStatistics.add(compiler.getCacheStatistics());
+
+    CompilationResult compilationResult = createCompilationResult(cssStyleSheet, context);
+    return compilationResult;
+  }
+
+  private String readContent(LessSource source) throws Less4jException {
+    try {
+      return source.getContent();
+    } catch (FileNotFound ex) {
+      throw new Less4jException(new GeneralProblem("The file " + source + " does not exists."), new CompilationResult(null));
+    } catch (CannotReadFile ex) {
+      throw new Less4jException(new GeneralProblem("Cannot read the file " + source + "."), new CompilationResult(null));
+    }
+  }
+
+  private StyleSheet parse(String content, CompilationContext context) throws Less4jException {
+    LessSource source = context.getSource();
+    ProblemsHandler problemsHandler = context.getProblemsHandler();
+    ParsedImport cached = importedAstCache.get(source, content);
+    if (cached != null) {
+      problemsHandler.addWarnings(cached.getWarnings());
+      return cached.getStyleSheet();
+    }
+
+    ANTLRParser.ParseResult result = parser.parseStyleSheet(content, source);
+    if (result.hasErrors()) {
+      CompilationResult compilationResult = new CompilationResult("Errors during parsing phase, partial result is not available.");
+      throw new Less4jException(result.getErrors(), compilationResult);
+    }
+    // separate handler collects problems of this file only, so they can be cached with it
+    ProblemsHandler parsingProblems = new ProblemsHandler();
+    ASTBuilder astBuilder = new ASTBuilder(parsingProblems);
+    StyleSheet lessStyleSheet = astBuilder.parse(result.getTree());
+    problemsHandler.addErrors(parsingProblems.getErrors());
+    problemsHandler.addWarnings(parsingProblems.getWarnings());
+    if (parsingProblems.hasErrors())
+      return lessStyleSheet;
+
+    ConstantsFolder constantsFolder = new ConstantsFolder();
+    constantsFolder.foldConstants(lessStyleSheet);
+    importedAstCache.put(source, new ParsedImport(content, lessStyleSheet, parsingProblems.getWarnings()));
+    return lessStyleSheet;
+  }
+
+  public ImportedAstCache getImportedAstCache() {
+    return importedAstCache;
+  }
+
+  public ExecutorService getImportsExecutor() {
+    return importsExecutor;
+  }
+
+  /**
+   * @return time spent in each stage summed over all compilations done by
+   *         this engine, parsing is not included
+   */
+  public StageTimings getTimings() {
+    return timings;
+  }
+
+  /**
+   * @return hits and misses of mixin, guard and namespace caches summed over
+   *         all compilations done by this engine
+   */
+  public CacheStatistics getCacheStatistics() {
+    return cacheStatistics;
+  }
+
+  private CompilationResult createCompilationResult(ASTCssNode cssStyleSheet, CompilationContext context) {
+    CssPrinter builder = new CssPrinter(context.getSource(), context.getCssResultLocation());
+    builder.append(cssStyleSheet);
+    String css = builder.toCss();
+    String sourceMap = builder.toSourceMap();
+
+    //FIXME: source map: add command line
+    CompilationResult compilationResult = new CompilationResult(css, sourceMap, context.getProblemsHandler().getWarnings());
+    return compilationResult;
+  }
+
+}
@@ -0,0 +1,79 @@
+package com.github.sommeri.less4j.core;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.github.sommeri.less4j.Less4jException;
+import com.github.sommeri.less4j.LessCompiler.CompilationResult;
+import com.github.sommeri.less4j.LessCompiler.Problem;
+import com.github.sommeri.less4j.LessSource;
+
+/**
+ * Outcome of one source compiled as a part of a larger build. Unlike
+ * {@link com.github.sommeri.less4j.LessCompiler#compile(LessSource)}, failed
+ * compilation does not throw an exception - errors are available through
+ * {@link #getErrors()}.
+ *
+ */
+public class SourceCompilationResult {
+
+  private final LessSource source;
+  private final CompilationResult result;
+  private final List<Problem> errors;
+
+  public SourceCompilationResult(LessSource source, CompilationResult result) {
+    this(source, result, emptyList());
+  }
+
+  public SourceCompilationResult(LessSource source, Less4jException failure) {
+    this(source, failure.getPartialResult(), failure.getErrors());
+  }
+
+  private SourceCompilationResult(LessSource source, CompilationResult result, List<Problem> errors) {
+    super();
+    this.source = source;
+    this.result = result;
+    this.errors = errors;
+  }
+
+  private static List<Problem> emptyList() {
+    return Collections.emptyList();
+  }
+
+  public LessSource getSource() {
+    return source;
+  }
+
+  /**
+   * @return compilation result or partial result if the compilation failed.
+   *         Partial result may be <code>null</code>.
+   */
+  public CompilationResult getResult() {
+    return result;
+  }
+
+  public String getCss() {
+    return result == null ? null : result.getCss();
+  }
+
+  public List<Problem> getWarnings() {
+    if (result == null || result.getWarnings() == null)
+      return emptyList();
+
+    return result.getWarnings();
+  }
+
+  public List<Problem> getErrors() {
+    return errors;
+  }
+
+  public boolean hasErrors() {
+    return !errors.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return "SourceCompilationResult [source=" + source + ", errors=" + errors.size() + "]";
+  }
+
+}
@@ -1,18 +1,23 @@
 package com.github.sommeri.less4j.core.ast;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.github.sommeri.less4j.LessSource;
 import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
-public abstract class ASTCssNode implements Cloneable {
+public abstract class ASTCssNode implements Cloneable, Serializable {
+
+  private static final long serialVersionUID = 1L;
   
   private ASTCssNode parent;
   private HiddenTokenAwareTree underlyingStructure;
-  private List<Comment> openingComments = new ArrayList<Comment>();
-  private List<Comment> orphanComments = new ArrayList<Comment>();
-  private List<Comment> trailingComments = new ArrayList<Comment>();
+  // comment lists are never modified in place, so clones can share them
+  private List<Comment> openingComments = Collections.emptyList();
+  private List<Comment> orphanComments = Collections.emptyList();
+  private List<Comment> trailingComments = Collections.emptyList();
 
   public ASTCssNode(HiddenTokenAwareTree underlyingStructure) {
     this.underlyingStructure = underlyingStructure;
@@ -42,6 +47,17 @@ public abstract class ASTCssNode implements Cloneable {
     this.parent = parent;
   }
 
+  /**
+   * Replaces child held directly in a field of this node. Childs held in lists
+   * are not replaced. Parent references are left to the caller.
+   * 
+   * @return <code>true</code> if the old child was found and the new one fits
+   *         into its place.
+   */
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    return false;
+  }
+
   public HiddenTokenAwareTree getUnderlyingStructure() {
     return underlyingStructure;
   }
@@ -50,6 +66,10 @@ public abstract class ASTCssNode implements Cloneable {
     this.underlyingStructure = underlyingStructure;
   }
 
+  /**
+   * Returned list may be shared with clones and must not be modified. Use
+   * {@link #addTrailingComments(List)} or {@link #setTrailingComments(List)} instead.
+   */
   public List<Comment> getTrailingComments() {
     return trailingComments;
   }
@@ -59,9 +79,13 @@ public abstract class ASTCssNode implements Cloneable {
   }
   
   public void addTrailingComments(List<Comment> comments) {
-    this.trailingComments.addAll(comments);
+    this.trailingComments = concat(trailingComments, comments);
   }
   
+  /**
+   * Returned list may be shared with clones and must not be modified. Use
+   * {@link #addOpeningComments(List)} or {@link #setOpeningComments(List)} instead.
+   */
   public List<Comment> getOpeningComments() {
     return openingComments;
   }
@@ -71,13 +95,27 @@ public abstract class ASTCssNode implements Cloneable {
   }
 
   public void addOpeningComments(List<Comment> openingComments) {
-    this.openingComments.addAll(openingComments);
+    this.openingComments = concat(this.openingComments, openingComments);
   }
   
+  /**
+   * Returned list may be shared with clones and must not be modified. Use
+   * {@link #setOrphanComments(List)} instead.
+   */
   public List<Comment> getOrphanComments() {
     return orphanComments;
   }
 
+  private List<Comment> concat(List<Comment> first, List<Comment> second) {
+    if (second.isEmpty())
+      return first;
+
+    List<Comment> result = new ArrayList<Comment>(first.size() + second.size());
+    result.addAll(first);
+    result.addAll(second);
+    return result;
+  }
+
   public void setOrphanComments(List<Comment> orphanComments) {
     this.orphanComments = orphanComments;
   }
@@ -104,9 +142,6 @@ public abstract class ASTCssNode implements Cloneable {
   public ASTCssNode clone() {
     try {
       ASTCssNode clone = (ASTCssNode) super.clone();
-      clone.setOpeningComments(new ArrayList<Comment>(getOpeningComments()));
-      clone.setOrphanComments(new ArrayList<Comment>(getOrphanComments()));
-      clone.setTrailingComments(new ArrayList<Comment>(getTrailingComments()));
       clone.setParent(null);
       return clone;
     } catch (CloneNotSupportedException e) {
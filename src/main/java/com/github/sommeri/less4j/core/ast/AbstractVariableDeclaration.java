@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public abstract class AbstractVariableDeclaration extends ASTCssNode {
 
+  private static final long serialVersionUID = 1L;
+
   private Variable variable;
   private Expression value;
 
@@ -36,6 +38,19 @@ public abstract class AbstractVariableDeclaration extends ASTCssNode {
     this.value = value;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (value == oldChild && newChild instanceof Expression) {
+      value = (Expression) newChild;
+      return true;
+    }
+    if (variable == oldChild && newChild instanceof Variable) {
+      variable = (Variable) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<? extends ASTCssNode> getChilds() {
     return ArraysUtils.asNonNullList(variable, value);
@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class AnonymousExpression extends Expression {
 
+  private static final long serialVersionUID = 1L;
+
   private String value;
   
   public AnonymousExpression(HiddenTokenAwareTree token, String value) {
@@ -3,6 +3,8 @@ package com.github.sommeri.less4j.core.ast;
 import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class ArgumentDeclaration extends AbstractVariableDeclaration {
+
+  private static final long serialVersionUID = 1L;
   
   private boolean isCollector = false;
 
@@ -8,6 +8,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public abstract class Body extends ASTCssNode {
 
+  private static final long serialVersionUID = 1L;
+
   private SyntaxOnlyElement openingCurlyBrace;
   private SyntaxOnlyElement closingCurlyBrace;
 
@@ -40,6 +42,19 @@ public abstract class Body extends ASTCssNode {
     this.closingCurlyBrace = closingCurlyBrace;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (closingCurlyBrace == oldChild && newChild instanceof SyntaxOnlyElement) {
+      closingCurlyBrace = (SyntaxOnlyElement) newChild;
+      return true;
+    }
+    if (openingCurlyBrace == oldChild && newChild instanceof SyntaxOnlyElement) {
+      openingCurlyBrace = (SyntaxOnlyElement) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<ASTCssNode> getChilds() {
     List<ASTCssNode> result = ArraysUtils.asNonNullList((ASTCssNode) openingCurlyBrace);
@@ -68,7 +83,7 @@ public abstract class Body extends ASTCssNode {
   }
 
   public void addMembersAfter(List<? extends ASTCssNode> newMembers, ASTCssNode kid) {
-    int index = body.indexOf(kid);
+    int index = positionOf(kid);
     if (index == -1)
       index = body.size();
     else
@@ -78,7 +93,7 @@ public abstract class Body extends ASTCssNode {
   }
 
   public void addMemberAfter(ASTCssNode newMember, ASTCssNode kid) {
-    int index = body.indexOf(kid);
+    int index = positionOf(kid);
     if (index == -1)
       index = body.size();
     else
@@ -93,19 +108,35 @@ public abstract class Body extends ASTCssNode {
   }
 
   public void replaceMember(ASTCssNode oldMember, List<ASTCssNode> newMembers) {
-    body.addAll(body.indexOf(oldMember), newMembers);
-    body.remove(oldMember);
+    int index = positionOf(oldMember);
+    body.remove(index);
+    body.addAll(index, newMembers);
     oldMember.setParent(null);
     configureParentToAllChilds();//POSSIBLE OPTIMIZATION: all these could be more targetted
   }
 
   public void replaceMember(ASTCssNode oldMember, ASTCssNode newMember) {
-    body.add(body.indexOf(oldMember), newMember);
-    body.remove(oldMember);
+    body.set(positionOf(oldMember), newMember);
     oldMember.setParent(null);
     newMember.setParent(this);
   }
 
+  /**
+   * Use to change many members at once - each single member change has to
+   * shift all members after it.
+   */
+  public BodyMembersEdit editMembers() {
+    return new BodyMembersEdit(this);
+  }
+
+  private int positionOf(ASTCssNode member) {
+    for (int i = 0; i < body.size(); i++) {
+      if (body.get(i) == member)
+        return i;
+    }
+    return -1;
+  }
+
   public List<ASTCssNode> membersByType(ASTCssNodeType type) {
     List<ASTCssNode> result = new ArrayList<ASTCssNode>();
     List<ASTCssNode> body = getMembers();
@@ -129,7 +160,12 @@ public abstract class Body extends ASTCssNode {
   }
 
   public boolean removeMember(ASTCssNode node) {
-    return body.remove(node);
+    int index = positionOf(node);
+    if (index == -1)
+      return false;
+
+    body.remove(index);
+    return true;
   }
 
   public Body clone() {
@@ -0,0 +1,111 @@
+package com.github.sommeri.less4j.core.ast;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects removals, replacements and additions of body members and applies
+ * them all in a single pass over the body. Members are found by identity.
+ *
+ * Nothing changes until {@link #apply()} is called. Members that are not in
+ * the body when the edit is applied are ignored, nodes added after them go
+ * to the end of the body.
+ *
+ */
+public class BodyMembersEdit {
+
+  private final Body body;
+  private final Map<ASTCssNode, Change> changes = new IdentityHashMap<ASTCssNode, Change>();
+  private int added = 0;
+
+  protected BodyMembersEdit(Body body) {
+    this.body = body;
+  }
+
+  public void remove(ASTCssNode member) {
+    changeOf(member).removed = true;
+  }
+
+  public void replace(ASTCssNode member, ASTCssNode replacement) {
+    Change change = changeOf(member);
+    change.removed = true;
+    change.replacements.add(replacement);
+    added++;
+  }
+
+  public void replace(ASTCssNode member, List<? extends ASTCssNode> replacements) {
+    Change change = changeOf(member);
+    change.removed = true;
+    change.replacements.addAll(replacements);
+    added += replacements.size();
+  }
+
+  /**
+   * Nodes added after the same member keep the order in which they were added.
+   */
+  public void addAfter(ASTCssNode member, List<? extends ASTCssNode> newMembers) {
+    changeOf(member).following.addAll(newMembers);
+    added += newMembers.size();
+  }
+
+  public boolean isEmpty() {
+    return changes.isEmpty();
+  }
+
+  public void apply() {
+    if (changes.isEmpty())
+      return;
+
+    List<ASTCssNode> members = body.getMembers();
+    List<ASTCssNode> result = new ArrayList<ASTCssNode>(members.size() + added);
+    List<ASTCssNode> newMembers = new ArrayList<ASTCssNode>(added);
+    for (ASTCssNode member : members) {
+      Change change = changes.remove(member);
+      if (change == null) {
+        result.add(member);
+      } else {
+        if (change.removed) {
+          member.setParent(null);
+        } else {
+          result.add(member);
+        }
+        newMembers.addAll(change.replacements);
+        result.addAll(change.replacements);
+        newMembers.addAll(change.following);
+        result.addAll(change.following);
+      }
+    }
+    for (Change missing : changes.values()) {
+      newMembers.addAll(missing.following);
+      result.addAll(missing.following);
+    }
+    // after all removals, so that members can be moved
+    for (ASTCssNode newMember : newMembers) {
+      newMember.setParent(body);
+    }
+    changes.clear();
+    added = 0;
+
+    // callers may keep the members list, so it is updated in place
+    members.clear();
+    members.addAll(result);
+  }
+
+  private Change changeOf(ASTCssNode member) {
+    Change result = changes.get(member);
+    if (result == null) {
+      result = new Change();
+      changes.put(member, result);
+    }
+    return result;
+  }
+
+  private static class Change {
+    private boolean removed = false;
+    private final List<ASTCssNode> replacements = new ArrayList<ASTCssNode>();
+    private final List<ASTCssNode> following = new ArrayList<ASTCssNode>();
+  }
+
+}
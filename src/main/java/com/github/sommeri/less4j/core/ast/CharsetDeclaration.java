@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class CharsetDeclaration extends ASTCssNode {
 
+  private static final long serialVersionUID = 1L;
+
   private String charset;
 
   public CharsetDeclaration(HiddenTokenAwareTree token, String charset) {
@@ -8,6 +8,10 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class ColorExpression extends Expression {
 
+  private static final long serialVersionUID = 1L;
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
   protected String value;
   protected double red;
   protected double green;
@@ -77,8 +81,28 @@ public class ColorExpression extends Expression {
     return Integer.parseInt(color.substring(i * 2 + 1, i * 2 + 3), 16);
   }
 
-  private String encode(double red, double green, double blue) {
-    return "#" + toHex(red) + toHex(green) + toHex(blue);
+  protected String encode(double red, double green, double blue) {
+    char[] result = new char[7];
+    result[0] = '#';
+    if (!writeHex(result, 1, red) || !writeHex(result, 3, green) || !writeHex(result, 5, blue))
+      return "#" + toHex(red) + toHex(green) + toHex(blue);
+
+    return new String(result);
+  }
+
+  /**
+   * Writes the same two digits {@link #toHex(double)} would return.
+   *
+   * @return <code>false</code> if {@link #toHex(double)} would not return exactly two digits
+   */
+  private static boolean writeHex(char[] result, int position, double color) {
+    long rounded = Math.round(color);
+    if (rounded < 0 || rounded > 255 || (color < 16) != (rounded < 16))
+      return false;
+
+    result[position] = HEX_DIGITS[(int) (rounded >> 4)];
+    result[position + 1] = HEX_DIGITS[(int) (rounded & 15)];
+    return true;
   }
 
   protected String toHex(double color) {
@@ -118,17 +142,17 @@ public class ColorExpression extends Expression {
 
   public static class ColorWithAlphaExpression extends ColorExpression {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Alpha in the range 0-1.
      */
     private double alpha;
 
     public ColorWithAlphaExpression(HiddenTokenAwareTree token, double red, double green, double blue, double alpha) {
-      super(token, red, green, blue);
+      super(token, null, red, green, blue);
       this.alpha = alpha;
-      if (alpha != 1.0) {
-        this.value = encode(red, green, blue, alpha);
-      }
+      this.value = alpha != 1.0 ? encode(red, green, blue, alpha) : encode(red, green, blue);
     }
 
     public ColorWithAlphaExpression(HiddenTokenAwareTree token, String originalValue, double red, double green, double blue, double alpha) {
@@ -142,7 +166,10 @@ public class ColorExpression extends Expression {
     }
 
     protected String encode(double red, double green, double blue, double alpha) {
-      return "rgba(" + Math.round(red) + ", " + Math.round(green) + ", " + Math.round(blue) + ", " + alpha + ")";
+      // large enough for usual values, so that the builder does not grow
+      StringBuilder result = new StringBuilder(64);
+      result.append("rgba(").append(Math.round(red)).append(", ").append(Math.round(green)).append(", ").append(Math.round(blue));
+      return result.append(", ").append(alpha).append(')').toString();
     }
 
     @Override
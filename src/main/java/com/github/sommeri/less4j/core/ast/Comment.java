@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class Comment extends ASTCssNode {
 
+  private static final long serialVersionUID = 1L;
+
   private String comment;
   private boolean hasNewLine;
   
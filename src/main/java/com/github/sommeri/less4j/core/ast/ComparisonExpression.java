@@ -6,6 +6,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class ComparisonExpression extends Expression {
+
+  private static final long serialVersionUID = 1L;
   
   private Expression left;
   private ComparisonExpressionOperator operator;
@@ -51,6 +53,23 @@ public class ComparisonExpression extends Expression {
     return ASTCssNodeType.COMPARISON_EXPRESSION;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (left == oldChild && newChild instanceof Expression) {
+      left = (Expression) newChild;
+      return true;
+    }
+    if (operator == oldChild && newChild instanceof ComparisonExpressionOperator) {
+      operator = (ComparisonExpressionOperator) newChild;
+      return true;
+    }
+    if (right == oldChild && newChild instanceof Expression) {
+      right = (Expression) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<? extends ASTCssNode> getChilds() {
     return ArraysUtils.asNonNullList(left, operator, right);
@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class ComparisonExpressionOperator extends ASTCssNode {
 
+  private static final long serialVersionUID = 1L;
+
   private Operator operator;
   
   public ComparisonExpressionOperator(HiddenTokenAwareTree underlyingStructure, Operator operator) {
@@ -9,6 +9,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class ComposedExpression extends Expression {
 
+  private static final long serialVersionUID = 1L;
+
   private Expression left;
   private ExpressionOperator operator;
   private Expression right;
@@ -90,6 +92,23 @@ public class ComposedExpression extends Expression {
     }
   }
   
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (left == oldChild && newChild instanceof Expression) {
+      left = (Expression) newChild;
+      return true;
+    }
+    if (operator == oldChild && newChild instanceof ExpressionOperator) {
+      operator = (ExpressionOperator) newChild;
+      return true;
+    }
+    if (right == oldChild && newChild instanceof Expression) {
+      right = (Expression) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<? extends ASTCssNode> getChilds() {
     return ArraysUtils.asNonNullList(left, operator, right);
@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class CssClass extends ElementSubsequent {
 
+  private static final long serialVersionUID = 1L;
+
   private InterpolableName name;
 
   public CssClass(HiddenTokenAwareTree token, InterpolableName name) {
@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class Declaration extends ASTCssNode {
 
+  private static final long serialVersionUID = 1L;
+
   private String name;
   private Expression expression;
   private boolean important;
@@ -55,6 +57,15 @@ public class Declaration extends ASTCssNode {
     return ASTCssNodeType.DECLARATION;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (expression == oldChild && newChild instanceof Expression) {
+      expression = (Expression) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<? extends ASTCssNode> getChilds() {
     return ArraysUtils.asNonNullList(expression);
@@ -8,6 +8,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class Document extends ASTCssNode implements BodyOwner<GeneralBody> {
 
+  private static final long serialVersionUID = 1L;
+
   private String dialect;
   private List<FunctionExpression> urlMatchFunction = new ArrayList<FunctionExpression>();
   private GeneralBody body;
@@ -37,6 +39,15 @@ public class Document extends ASTCssNode implements BodyOwner<GeneralBody> {
     return urlMatchFunction;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (body == oldChild && newChild instanceof GeneralBody) {
+      body = (GeneralBody) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<ASTCssNode> getChilds() {
     List<ASTCssNode> childs = new ArrayList<ASTCssNode>(urlMatchFunction);
@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class EmptyExpression extends Expression {
 
+  private static final long serialVersionUID = 1L;
+
   public EmptyExpression(HiddenTokenAwareTree token) {
     super(token);
   }
@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class EscapedSelector extends SelectorPart {
 
+  private static final long serialVersionUID = 1L;
+
   private String value;
   private String quoteType;
 
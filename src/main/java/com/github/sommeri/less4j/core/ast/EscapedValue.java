@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class EscapedValue extends Expression {
 
+  private static final long serialVersionUID = 1L;
+
   private String value;
 
   public EscapedValue(HiddenTokenAwareTree token, String value) {
@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public abstract class Expression extends ASTCssNode {
 
+  private static final long serialVersionUID = 1L;
+
   public Expression(HiddenTokenAwareTree token) {
     super(token);
   }
@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class ExpressionOperator extends ASTCssNode {
 
+  private static final long serialVersionUID = 1L;
+
   private Operator operator;
   
   public ExpressionOperator(HiddenTokenAwareTree underlyingStructure) {
@@ -6,6 +6,8 @@ import java.util.List;
 import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class FaultyExpression extends Expression {
+
+  private static final long serialVersionUID = 1L;
   
   public FaultyExpression(HiddenTokenAwareTree token) {
     super(token);
@@ -6,6 +6,8 @@ import java.util.List;
 import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class FaultyNode extends ASTCssNode {
+
+  private static final long serialVersionUID = 1L;
   
   public FaultyNode(HiddenTokenAwareTree token) {
     super(token);
@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class FixedMediaExpression extends MediaExpression {
 
+  private static final long serialVersionUID = 1L;
+
   private MediaExpressionFeature feature;
   private Expression expression;
 
@@ -37,6 +39,19 @@ public class FixedMediaExpression extends MediaExpression {
     return ASTCssNodeType.FIXED_MEDIA_EXPRESSION;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (expression == oldChild && newChild instanceof Expression) {
+      expression = (Expression) newChild;
+      return true;
+    }
+    if (feature == oldChild && newChild instanceof MediaExpressionFeature) {
+      feature = (MediaExpressionFeature) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<? extends ASTCssNode> getChilds() {
     return ArraysUtils.asNonNullList(feature, expression);
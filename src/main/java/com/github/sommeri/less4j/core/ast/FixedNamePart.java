@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class FixedNamePart extends InterpolableNamePart {
 
+  private static final long serialVersionUID = 1L;
+
   private String name;
 
   public FixedNamePart(HiddenTokenAwareTree token, String name) {
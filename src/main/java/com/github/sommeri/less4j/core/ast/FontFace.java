@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class FontFace extends ASTCssNode implements BodyOwner<GeneralBody> {
 
+  private static final long serialVersionUID = 1L;
+
   private GeneralBody body;
 
   public FontFace(HiddenTokenAwareTree underlyingStructure) {
@@ -21,6 +23,15 @@ public class FontFace extends ASTCssNode implements BodyOwner<GeneralBody> {
     this.body = body;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (body == oldChild && newChild instanceof GeneralBody) {
+      body = (GeneralBody) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<ASTCssNode> getChilds() {
     return ArraysUtils.asNonNullList((ASTCssNode)body);
@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class FunctionExpression extends Expression {
 
+  private static final long serialVersionUID = 1L;
+
   private String name;
   private Expression parameter;
 
@@ -61,6 +63,15 @@ public class FunctionExpression extends Expression {
     return ASTCssNodeType.FUNCTION;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (parameter == oldChild && newChild instanceof Expression) {
+      parameter = (Expression) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<? extends ASTCssNode> getChilds() {
     return ArraysUtils.asNonNullList(parameter);
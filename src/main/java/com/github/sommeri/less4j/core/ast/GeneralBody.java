@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class GeneralBody extends Body {
 
+  private static final long serialVersionUID = 1L;
+
   public GeneralBody(HiddenTokenAwareTree underlyingStructure) {
     this(underlyingStructure, new ArrayList<ASTCssNode>());
   }
@@ -8,6 +8,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class Guard extends ASTCssNode {
 
+  private static final long serialVersionUID = 1L;
+
   //since guards allow only the "and" operator, we to not need special oerator field
   private List<GuardCondition> conditions = new ArrayList<GuardCondition>();
 
@@ -6,6 +6,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class GuardCondition extends ASTCssNode {
+
+  private static final long serialVersionUID = 1L;
   
   private boolean isNegated;
   private Expression condition;
@@ -36,6 +38,15 @@ public class GuardCondition extends ASTCssNode {
     this.condition = condition;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (condition == oldChild && newChild instanceof Expression) {
+      condition = (Expression) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<? extends ASTCssNode> getChilds() {
     return ArraysUtils.asNonNullList(condition);
@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class IdSelector extends ElementSubsequent {
 
+  private static final long serialVersionUID = 1L;
+
   private InterpolableName name;
 
   public IdSelector(HiddenTokenAwareTree token, InterpolableName name) {
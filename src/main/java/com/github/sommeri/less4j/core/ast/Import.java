@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class Import extends ASTCssNode {
+
+  private static final long serialVersionUID = 1L;
   
   private ImportKind kind = ImportKind.IMPORT;
   private Expression urlExpression;
@@ -48,6 +50,15 @@ public class Import extends ASTCssNode {
     return !mediums.isEmpty();
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (urlExpression == oldChild && newChild instanceof Expression) {
+      urlExpression = (Expression) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<? extends ASTCssNode> getChilds() {
     List<ASTCssNode> result = ArraysUtils.asNonNullList((ASTCssNode)urlExpression);
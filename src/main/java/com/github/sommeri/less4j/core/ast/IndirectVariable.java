@@ -3,6 +3,8 @@ package com.github.sommeri.less4j.core.ast;
 import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class IndirectVariable extends Variable {
+
+  private static final long serialVersionUID = 1L;
   
   public IndirectVariable(HiddenTokenAwareTree underlyingStructure, String name) {
     super(underlyingStructure, name);
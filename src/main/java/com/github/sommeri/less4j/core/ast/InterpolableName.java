@@ -8,6 +8,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class InterpolableName extends ASTCssNode {
+
+  private static final long serialVersionUID = 1L;
   
   private List<InterpolableNamePart> parts = new ArrayList<InterpolableNamePart>(); 
   
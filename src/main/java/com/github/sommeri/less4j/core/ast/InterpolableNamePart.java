@@ -5,6 +5,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 //interpolable name part MUST be a child of interpolable name
 public abstract class InterpolableNamePart extends ASTCssNode {
 
+  private static final long serialVersionUID = 1L;
+
   public InterpolableNamePart(HiddenTokenAwareTree underlyingStructure) {
     super(underlyingStructure);
   }
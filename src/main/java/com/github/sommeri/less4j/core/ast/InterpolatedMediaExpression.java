@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class InterpolatedMediaExpression extends MediaExpression {
 
+  private static final long serialVersionUID = 1L;
+
   private Expression expression;
   
   public InterpolatedMediaExpression(HiddenTokenAwareTree underlyingStructure) {
@@ -26,6 +28,15 @@ public class InterpolatedMediaExpression extends MediaExpression {
     this.expression = expression;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (expression == oldChild && newChild instanceof Expression) {
+      expression = (Expression) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<? extends ASTCssNode> getChilds() {
     return ArraysUtils.asNonNullList(expression);
@@ -36,8 +47,12 @@ public class InterpolatedMediaExpression extends MediaExpression {
     return ASTCssNodeType.INTERPOLATED_MEDIA_EXPRESSION;
   }
 
+  @Override
   public InterpolatedMediaExpression clone() {
-    return (InterpolatedMediaExpression) super.clone();
+    InterpolatedMediaExpression result = (InterpolatedMediaExpression) super.clone();
+    result.expression = expression==null?null:expression.clone();
+    result.configureParentToAllChilds();
+    return result;
   }
 
 }
@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class KeyframesName extends ASTCssNode {
 
+  private static final long serialVersionUID = 1L;
+
   private String name;
 
   public KeyframesName(HiddenTokenAwareTree underlyingStructure, String name) {
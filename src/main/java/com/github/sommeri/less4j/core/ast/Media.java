@@ -8,6 +8,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class Media extends ASTCssNode implements BodyOwner<GeneralBody> {
 
+  private static final long serialVersionUID = 1L;
+
   private List<MediaQuery> mediums;
   private GeneralBody body;
 
@@ -38,6 +40,15 @@ public class Media extends ASTCssNode implements BodyOwner<GeneralBody> {
     mediums.addAll(result);
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (body == oldChild && newChild instanceof GeneralBody) {
+      body = (GeneralBody) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<ASTCssNode> getChilds() {
     List<ASTCssNode> childs = new ArrayList<ASTCssNode>();
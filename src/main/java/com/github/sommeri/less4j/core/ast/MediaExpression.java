@@ -4,6 +4,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public abstract class MediaExpression extends ASTCssNode {
 
+  private static final long serialVersionUID = 1L;
+
   public MediaExpression(HiddenTokenAwareTree underlyingStructure) {
     super(underlyingStructure);
   }
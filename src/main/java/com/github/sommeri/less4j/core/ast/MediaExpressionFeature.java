@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class MediaExpressionFeature extends ASTCssNode {
 
+  private static final long serialVersionUID = 1L;
+
   private String feature;
 
   public MediaExpressionFeature(HiddenTokenAwareTree underlyingStructure, String feature) {
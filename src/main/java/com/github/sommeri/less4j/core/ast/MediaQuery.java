@@ -8,6 +8,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class MediaQuery extends ASTCssNode {
 
+  private static final long serialVersionUID = 1L;
+
   private Medium medium;
   private List<MediaExpression> expressions;
 
@@ -71,6 +73,15 @@ public class MediaQuery extends ASTCssNode {
     return false;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (medium == oldChild && newChild instanceof Medium) {
+      medium = (Medium) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<? extends ASTCssNode> getChilds() {
     List<ASTCssNode> result = ArraysUtils.asNonNullList((ASTCssNode)medium);
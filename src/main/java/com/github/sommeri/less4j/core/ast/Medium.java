@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class Medium extends ASTCssNode {
 
+  private static final long serialVersionUID = 1L;
+
   private MediumModifier modifier;
   private MediumType mediumType;
 
@@ -37,6 +39,19 @@ public class Medium extends ASTCssNode {
     return ASTCssNodeType.MEDIUM;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (mediumType == oldChild && newChild instanceof MediumType) {
+      mediumType = (MediumType) newChild;
+      return true;
+    }
+    if (modifier == oldChild && newChild instanceof MediumModifier) {
+      modifier = (MediumModifier) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<? extends ASTCssNode> getChilds() {
     return ArraysUtils.asNonNullList(modifier, mediumType);
@@ -6,6 +6,8 @@ import java.util.List;
 import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class MediumModifier extends ASTCssNode {
+
+  private static final long serialVersionUID = 1L;
   
   private Modifier modifier = Modifier.NONE;
 
@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class MediumType extends ASTCssNode {
 
+  private static final long serialVersionUID = 1L;
+
   private String name;
 
   public MediumType(HiddenTokenAwareTree underlyingStructure, String name) {
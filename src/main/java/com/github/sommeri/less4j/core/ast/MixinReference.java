@@ -11,6 +11,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class MixinReference extends ASTCssNode {
 
+  private static final long serialVersionUID = 1L;
+
   private List<ReusableStructureName> nameChain = new ArrayList<ReusableStructureName>();
   private ReusableStructureName finalName;
   private List<Expression> positionalParameters = new ArrayList<Expression>();
@@ -110,6 +112,15 @@ public class MixinReference extends ASTCssNode {
     return finalName.isInterpolated();
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (finalName == oldChild && newChild instanceof ReusableStructureName) {
+      finalName = (ReusableStructureName) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<? extends ASTCssNode> getChilds() {
     List<ASTCssNode> result = ArraysUtils.asNonNullList((ASTCssNode)finalName);
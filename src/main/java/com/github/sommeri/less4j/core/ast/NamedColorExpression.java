@@ -12,6 +12,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
  *
  */
 public class NamedColorExpression extends ColorExpression {
+
+  private static final long serialVersionUID = 1L;
   
   private static final Map<String, String> ALL_NAMES;
   static {
@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class NamedExpression extends IdentifierExpression {
 
+  private static final long serialVersionUID = 1L;
+
   private Expression expression;
   private String name;
 
@@ -36,6 +38,15 @@ public class NamedExpression extends IdentifierExpression {
     this.name = name;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (expression == oldChild && newChild instanceof Expression) {
+      expression = (Expression) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<ASTCssNode> getChilds() {
     List<ASTCssNode> result = ArraysUtils.asNonNullList((ASTCssNode)expression);
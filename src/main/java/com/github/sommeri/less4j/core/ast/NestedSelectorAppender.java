@@ -8,6 +8,8 @@ import com.github.sommeri.less4j.core.problems.BugHappened;
 
 public class NestedSelectorAppender extends SelectorPart {
 
+  private static final long serialVersionUID = 1L;
+
   private boolean directlyBefore;
   private boolean directlyAfter;
 
@@ -6,6 +6,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class Nth extends ASTCssNode {
+
+  private static final long serialVersionUID = 1L;
   
   private NumberExpression repeater;
   private NumberExpression mod;
@@ -51,6 +53,19 @@ public class Nth extends ASTCssNode {
     return ASTCssNodeType.NTH;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (mod == oldChild && newChild instanceof NumberExpression) {
+      mod = (NumberExpression) newChild;
+      return true;
+    }
+    if (repeater == oldChild && newChild instanceof NumberExpression) {
+      repeater = (NumberExpression) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<? extends ASTCssNode> getChilds() {
     return ArraysUtils.asNonNullList(repeater, mod);
@@ -10,6 +10,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 //the system would be nicer and more consistent if they all would be cloneable. 
 public class NumberExpression extends Expression implements Cloneable {
 
+  private static final long serialVersionUID = 1L;
+
   private String originalString;
   private Dimension dimension = Dimension.NUMBER;
   private Double valueAsDouble;
@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class Page extends ASTCssNode implements BodyOwner<GeneralBody>{
 
+  private static final long serialVersionUID = 1L;
+
   private Name name;
   private boolean dockedPseudopage = true;
   private Name pseudopage;
@@ -62,6 +64,23 @@ public class Page extends ASTCssNode implements BodyOwner<GeneralBody>{
     this.body = body;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (body == oldChild && newChild instanceof GeneralBody) {
+      body = (GeneralBody) newChild;
+      return true;
+    }
+    if (name == oldChild && newChild instanceof Name) {
+      name = (Name) newChild;
+      return true;
+    }
+    if (pseudopage == oldChild && newChild instanceof Name) {
+      pseudopage = (Name) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<ASTCssNode> getChilds() {
     return ArraysUtils.asNonNullList((ASTCssNode)name, pseudopage, body);
@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class ParenthesesExpression extends Expression {
 
+  private static final long serialVersionUID = 1L;
+
   private Expression enclosedExpression;
 
   public ParenthesesExpression(HiddenTokenAwareTree token, Expression enclosedExpression) {
@@ -14,6 +16,15 @@ public class ParenthesesExpression extends Expression {
     this.enclosedExpression = enclosedExpression;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (enclosedExpression == oldChild && newChild instanceof Expression) {
+      enclosedExpression = (Expression) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<? extends ASTCssNode> getChilds() {
     return ArraysUtils.asNonNullList(enclosedExpression);
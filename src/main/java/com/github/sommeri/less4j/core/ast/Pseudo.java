@@ -4,6 +4,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public abstract class Pseudo extends ElementSubsequent {
 
+  private static final long serialVersionUID = 1L;
+
   private String name;
 
   public Pseudo(HiddenTokenAwareTree token, String name) {
@@ -6,6 +6,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class PseudoClass extends Pseudo {
+
+  private static final long serialVersionUID = 1L;
   
   private ASTCssNode parameter;
 
@@ -39,6 +41,15 @@ public class PseudoClass extends Pseudo {
     return ASTCssNodeType.PSEUDO_CLASS;
   }
   
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (parameter == oldChild) {
+      parameter = newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<? extends ASTCssNode> getChilds() {
     return ArraysUtils.asNonNullList(parameter);
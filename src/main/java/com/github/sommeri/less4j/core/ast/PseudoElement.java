@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class PseudoElement extends Pseudo {
 
+  private static final long serialVersionUID = 1L;
+
   private boolean level12Form;
 
   public PseudoElement(HiddenTokenAwareTree token, String name) {
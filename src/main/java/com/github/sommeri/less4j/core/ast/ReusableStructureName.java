@@ -8,6 +8,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class ReusableStructureName extends ASTCssNode {
 
+  private static final long serialVersionUID = 1L;
+
   private List<ElementSubsequent> nameParts = new ArrayList<ElementSubsequent>();
     
   public ReusableStructureName(HiddenTokenAwareTree underlyingStructure) {
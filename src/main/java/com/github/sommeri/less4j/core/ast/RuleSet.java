@@ -10,6 +10,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class RuleSet extends ASTCssNode implements BodyOwner<GeneralBody> {
 
+  private static final long serialVersionUID = 1L;
+
   private List<Selector> selectors = new ArrayList<Selector>();
   private GeneralBody body;
 
@@ -88,6 +90,15 @@ public class RuleSet extends ASTCssNode implements BodyOwner<GeneralBody> {
     return result;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (body == oldChild && newChild instanceof GeneralBody) {
+      body = (GeneralBody) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<? extends ASTCssNode> getChilds() {
     List<ASTCssNode> result = ArraysUtils.asNonNullList((ASTCssNode)body);
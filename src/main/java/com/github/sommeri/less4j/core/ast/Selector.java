@@ -6,6 +6,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class Selector extends ASTCssNode implements Cloneable {
+
+  private static final long serialVersionUID = 1L;
   
   private SelectorCombinator leadingCombinator;
   private SelectorPart head;
@@ -54,6 +56,23 @@ public class Selector extends ASTCssNode implements Cloneable {
     this.right = right;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (head == oldChild && newChild instanceof SelectorPart) {
+      head = (SelectorPart) newChild;
+      return true;
+    }
+    if (leadingCombinator == oldChild && newChild instanceof SelectorCombinator) {
+      leadingCombinator = (SelectorCombinator) newChild;
+      return true;
+    }
+    if (right == oldChild && newChild instanceof Selector) {
+      right = (Selector) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<? extends ASTCssNode> getChilds() {
     return ArraysUtils.asNonNullList((ASTCssNode)leadingCombinator, head, right);
@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class SelectorAttribute extends ElementSubsequent {
 
+  private static final long serialVersionUID = 1L;
+
   private String name;
   private SelectorOperator operator;
   private Expression value;
@@ -60,6 +62,19 @@ public class SelectorAttribute extends ElementSubsequent {
     return ASTCssNodeType.SELECTOR_ATTRIBUTE;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (operator == oldChild && newChild instanceof SelectorOperator) {
+      operator = (SelectorOperator) newChild;
+      return true;
+    }
+    if (value == oldChild && newChild instanceof Expression) {
+      value = (Expression) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<? extends ASTCssNode> getChilds() {
     return ArraysUtils.asNonNullList(operator, value);
@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class SelectorCombinator extends ASTCssNode implements Cloneable {
 
+  private static final long serialVersionUID = 1L;
+
   private Combinator combinator;
 
   public SelectorCombinator(HiddenTokenAwareTree underlyingStructure) {
@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class SelectorOperator extends ASTCssNode {
 
+  private static final long serialVersionUID = 1L;
+
   private Operator operator;
   
   public SelectorOperator(HiddenTokenAwareTree underlyingStructure) {
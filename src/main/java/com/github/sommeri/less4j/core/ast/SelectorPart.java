@@ -4,6 +4,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public abstract class SelectorPart extends ASTCssNode {
 
+  private static final long serialVersionUID = 1L;
+
   public SelectorPart(HiddenTokenAwareTree underlyingStructure) {
     super(underlyingStructure);
   }
@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class SignedExpression extends Expression {
 
+  private static final long serialVersionUID = 1L;
+
   private Expression expression;
   private Sign sign;
 
@@ -16,6 +18,15 @@ public class SignedExpression extends Expression {
     this.sign = sign;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (expression == oldChild && newChild instanceof Expression) {
+      expression = (Expression) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<? extends ASTCssNode> getChilds() {
     return ArraysUtils.asNonNullList(expression);
@@ -11,6 +11,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class SimpleSelector extends SelectorPart implements Cloneable {
 
+  private static final long serialVersionUID = 1L;
+
   private InterpolableName elementName;
   private boolean isStar;
   //*.warning and .warning are equivalent http://www.w3.org/TR/css3-selectors/#universal-selector
@@ -89,6 +91,15 @@ public class SimpleSelector extends SelectorPart implements Cloneable {
     this.subsequent.addAll(subsequent);
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (elementName == oldChild && newChild instanceof InterpolableName) {
+      elementName = (InterpolableName) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<ASTCssNode> getChilds() {
     List<ASTCssNode> result = ArraysUtils.asNonNullList((ASTCssNode)elementName);
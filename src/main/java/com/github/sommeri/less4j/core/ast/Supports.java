@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class Supports extends ASTCssNode implements BodyOwner<GeneralBody> {
 
+  private static final long serialVersionUID = 1L;
+
   private String dialect;
   private SupportsCondition condition;
   private GeneralBody body;
@@ -40,6 +42,19 @@ public class Supports extends ASTCssNode implements BodyOwner<GeneralBody> {
     this.condition = condition;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (body == oldChild && newChild instanceof GeneralBody) {
+      body = (GeneralBody) newChild;
+      return true;
+    }
+    if (condition == oldChild && newChild instanceof SupportsCondition) {
+      condition = (SupportsCondition) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<ASTCssNode> getChilds() {
     List<ASTCssNode> result = ArraysUtils.asNonNullList(condition, body);
@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class SupportsConditionInParentheses extends SupportsCondition {
 
+  private static final long serialVersionUID = 1L;
+
   private SyntaxOnlyElement openingParentheses;
   private SyntaxOnlyElement closingParentheses;
   private SupportsCondition condition;
@@ -42,6 +44,23 @@ public class SupportsConditionInParentheses extends SupportsCondition {
     this.condition = condition;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (closingParentheses == oldChild && newChild instanceof SyntaxOnlyElement) {
+      closingParentheses = (SyntaxOnlyElement) newChild;
+      return true;
+    }
+    if (condition == oldChild && newChild instanceof SupportsCondition) {
+      condition = (SupportsCondition) newChild;
+      return true;
+    }
+    if (openingParentheses == oldChild && newChild instanceof SyntaxOnlyElement) {
+      openingParentheses = (SyntaxOnlyElement) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<? extends ASTCssNode> getChilds() {
     List<ASTCssNode> childs = ArraysUtils.asNonNullList(openingParentheses, condition, closingParentheses);
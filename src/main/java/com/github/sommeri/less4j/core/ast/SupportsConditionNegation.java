@@ -6,6 +6,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class SupportsConditionNegation extends SupportsCondition {
+
+  private static final long serialVersionUID = 1L;
   
   private SyntaxOnlyElement negation;
   private SupportsCondition condition;
@@ -32,6 +34,19 @@ public class SupportsConditionNegation extends SupportsCondition {
     this.condition = condition;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (condition == oldChild && newChild instanceof SupportsCondition) {
+      condition = (SupportsCondition) newChild;
+      return true;
+    }
+    if (negation == oldChild && newChild instanceof SyntaxOnlyElement) {
+      negation = (SyntaxOnlyElement) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<? extends ASTCssNode> getChilds() {
     List<ASTCssNode> childs = ArraysUtils.asNonNullList(negation, condition);
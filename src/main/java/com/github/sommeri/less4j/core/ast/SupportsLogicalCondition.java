@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class SupportsLogicalCondition extends SupportsCondition {
+
+  private static final long serialVersionUID = 1L;
   
   private List<SupportsLogicalOperator> logicalOperators = new ArrayList<SupportsLogicalOperator>();
   private List<SupportsCondition> conditions = new ArrayList<SupportsCondition>();
@@ -9,6 +9,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class SupportsLogicalOperator extends ASTCssNode implements Cloneable {
 
+  private static final long serialVersionUID = 1L;
+
   private Operator operator;
 
   public SupportsLogicalOperator(HiddenTokenAwareTree underlyingStructure, Operator operator) {
@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class SupportsQuery extends SupportsCondition {
 
+  private static final long serialVersionUID = 1L;
+
   private SyntaxOnlyElement openingParentheses;
   private SyntaxOnlyElement closingParentheses;
   private Declaration declaration;
@@ -42,6 +44,23 @@ public class SupportsQuery extends SupportsCondition {
     this.declaration = declaration;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (closingParentheses == oldChild && newChild instanceof SyntaxOnlyElement) {
+      closingParentheses = (SyntaxOnlyElement) newChild;
+      return true;
+    }
+    if (declaration == oldChild && newChild instanceof Declaration) {
+      declaration = (Declaration) newChild;
+      return true;
+    }
+    if (openingParentheses == oldChild && newChild instanceof SyntaxOnlyElement) {
+      openingParentheses = (SyntaxOnlyElement) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<ASTCssNode> getChilds() {
     List<ASTCssNode> childs = ArraysUtils.asNonNullList(openingParentheses, declaration, closingParentheses);
@@ -14,6 +14,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
  *
  */
 public class SyntaxOnlyElement extends ASTCssNode {
+
+  private static final long serialVersionUID = 1L;
   
   private String symbol = "";
 
@@ -4,6 +4,8 @@ import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
 
 public class VariableDeclaration extends AbstractVariableDeclaration {
 
+  private static final long serialVersionUID = 1L;
+
   public VariableDeclaration(AbstractVariableDeclaration copy) {
     super(copy);
   }
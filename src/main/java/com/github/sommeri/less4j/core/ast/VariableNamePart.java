@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class VariableNamePart extends InterpolableNamePart {
 
+  private static final long serialVersionUID = 1L;
+
   private Variable variable;
   
   public VariableNamePart(HiddenTokenAwareTree underlyingStructure) {
@@ -30,6 +32,15 @@ public class VariableNamePart extends InterpolableNamePart {
     this.variable = variable;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (variable == oldChild && newChild instanceof Variable) {
+      variable = (Variable) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<? extends ASTCssNode> getChilds() {
     return ArraysUtils.asNonNullList(variable);
@@ -40,8 +51,12 @@ public class VariableNamePart extends InterpolableNamePart {
     return ASTCssNodeType.VARIABLE_NAME_PART;
   }
 
+  @Override
   public VariableNamePart clone() {
-    return (VariableNamePart) super.clone();
+    VariableNamePart result = (VariableNamePart) super.clone();
+    result.variable = variable==null?null:variable.clone();
+    result.configureParentToAllChilds();
+    return result;
   }
 
 }
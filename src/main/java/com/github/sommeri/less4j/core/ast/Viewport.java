@@ -7,6 +7,8 @@ import com.github.sommeri.less4j.utils.ArraysUtils;
 
 public class Viewport extends ASTCssNode implements BodyOwner<GeneralBody> {
 
+  private static final long serialVersionUID = 1L;
+
   //I have to do this because of a comment in following less: `@viewport /*comment */ { ... }`
   private GeneralBody body;
   private String dialect;
@@ -32,6 +34,15 @@ public class Viewport extends ASTCssNode implements BodyOwner<GeneralBody> {
     this.dialect = dialect;
   }
 
+  @Override
+  public boolean replaceChild(ASTCssNode oldChild, ASTCssNode newChild) {
+    if (body == oldChild && newChild instanceof GeneralBody) {
+      body = (GeneralBody) newChild;
+      return true;
+    }
+    return super.replaceChild(oldChild, newChild);
+  }
+
   @Override
   public List<ASTCssNode> getChilds() {
     return ArraysUtils.asNonNullList((ASTCssNode)body);
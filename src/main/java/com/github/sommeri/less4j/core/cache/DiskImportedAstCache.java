@@ -0,0 +1,176 @@
+package com.github.sommeri.less4j.core.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Properties;
+
+import org.apache.commons.io.IOUtils;
+
+import com.github.sommeri.less4j.LessCompiler.Problem;
+import com.github.sommeri.less4j.LessSource;
+import com.github.sommeri.less4j.core.ast.StyleSheet;
+import com.github.sommeri.less4j.core.parser.TreeInputStream;
+
+/**
+ * Persistent cache that keeps serialized abstract syntax trees in a directory.
+ * Files are named after hash of parsed content, so the cache survives between
+ * builds, can be shared by multiple processes and serves also files with the
+ * same content located elsewhere. Loaded trees get positions of original
+ * tokens, but are bound to the currently compiled source.
+ * 
+ * Only sheets parsed without warnings are stored. Unreadable or outdated
+ * entries are treated as missing and removed. File names contain less4j
+ * version, so each release starts with new entries. Entries written by
+ * changed classes of the same version are refused by {@link TreeInputStream}.
+ * 
+ */
+public class DiskImportedAstCache implements ImportedAstCache {
+
+  // change whenever meaning of serialized fields changes
+  private static final int FORMAT_VERSION = 2;
+  private static final String PREFIX = FORMAT_VERSION + "-" + readLess4jVersion() + "-";
+  private static final String SUFFIX = ".ast";
+
+  private final File directory;
+
+  private long hits = 0;
+  private long misses = 0;
+
+  public DiskImportedAstCache(File directory) {
+    this.directory = directory;
+  }
+
+  @Override
+  public ParsedImport get(LessSource source, String content) {
+    File file = toFile(content);
+    StyleSheet styleSheet = file.exists() ? read(file, source) : null;
+    if (styleSheet == null) {
+      countMiss();
+      return null;
+    }
+
+    countHit();
+    return new ParsedImport(content, styleSheet, Collections.<Problem> emptyList(), false);
+  }
+
+  @Override
+  public void put(LessSource source, ParsedImport parsedImport) {
+    if (!parsedImport.getWarnings().isEmpty())
+      return;
+
+    File file = toFile(parsedImport.getContent());
+    if (file.exists())
+      return;
+
+    directory.mkdirs();
+    write(file, parsedImport.getStyleSheetWithoutCopying());
+  }
+
+  private StyleSheet read(File file, LessSource source) {
+    StyleSheet result = null;
+    InputStream input = null;
+    try {
+      input = new BufferedInputStream(new FileInputStream(file));
+      result = (StyleSheet) new TreeInputStream(input, source).readObject();
+    } catch (Exception ex) {
+      // corrupted file or classes changed since it was written
+    } finally {
+      IOUtils.closeQuietly(input);
+    }
+
+    if (result == null)
+      file.delete();
+    return result;
+  }
+
+  private void write(File file, StyleSheet styleSheet) {
+    // other processes must never see half written file
+    File temporary = new File(directory, file.getName() + "." + System.nanoTime() + ".tmp");
+    OutputStream output = null;
+    boolean written = false;
+    try {
+      output = new BufferedOutputStream(new FileOutputStream(temporary));
+      ObjectOutputStream objects = new ObjectOutputStream(output);
+      objects.writeObject(styleSheet);
+      objects.flush();
+      written = true;
+    } catch (IOException ex) {
+      // the cache is only an optimization
+    } finally {
+      IOUtils.closeQuietly(output);
+    }
+
+    if (!written || !temporary.renameTo(file))
+      temporary.delete();
+  }
+
+  private File toFile(String content) {
+    return new File(directory, PREFIX + hash(content) + SUFFIX);
+  }
+
+  private static String readLess4jVersion() {
+    InputStream input = DiskImportedAstCache.class.getResourceAsStream("/version.prop");
+    if (input == null)
+      return "unknown";
+
+    try {
+      Properties properties = new Properties();
+      properties.load(input);
+      String version = properties.getProperty("version", "unknown");
+      // the version becomes part of file names
+      return version.replaceAll("[^A-Za-z0-9.]", "_");
+    } catch (IOException ex) {
+      return "unknown";
+    } finally {
+      IOUtils.closeQuietly(input);
+    }
+  }
+
+  private String hash(String content) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-1");
+      byte[] bytes = digest.digest(content.getBytes("UTF-8"));
+      StringBuilder result = new StringBuilder();
+      for (byte b : bytes) {
+        result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return result.toString();
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    } catch (UnsupportedEncodingException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  public File getDirectory() {
+    return directory;
+  }
+
+  private synchronized void countHit() {
+    hits++;
+  }
+
+  private synchronized void countMiss() {
+    misses++;
+  }
+
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+}
@@ -0,0 +1,30 @@
+package com.github.sommeri.less4j.core.cache;
+
+import com.github.sommeri.less4j.LessSource;
+
+/**
+ * Keeps parsed abstract syntax trees of imported files between compilations.
+ * Implementations must be thread safe - the same cache is used by all
+ * compilations running on the same compiler engine.
+ * 
+ * Cached entry is valid only for the content it was parsed from. The cache
+ * must return <code>null</code> if the stored content differs from current
+ * file content.
+ * 
+ */
+public interface ImportedAstCache {
+
+  /**
+   * @return previously parsed import or <code>null</code> if the source with
+   *         given content is not cached.
+   */
+  ParsedImport get(LessSource source, String content);
+
+  /**
+   * The compiler keeps working with the style sheet of passed import once this
+   * method returns. Implementations that hold on to it must store a copy
+   * (see {@link ParsedImport#copy()}).
+   */
+  void put(LessSource source, ParsedImport parsedImport);
+
+}
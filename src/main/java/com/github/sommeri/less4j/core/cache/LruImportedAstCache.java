@@ -0,0 +1,80 @@
+package com.github.sommeri.less4j.core.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.github.sommeri.less4j.LessSource;
+
+/**
+ * Bounded in memory cache. Once full, it evicts least recently used import.
+ * 
+ */
+public class LruImportedAstCache implements ImportedAstCache {
+
+  public static final int DEFAULT_MAXIMUM_SIZE = 200;
+
+  private final int maximumSize;
+  private final Map<LessSource, ParsedImport> storage;
+
+  private long hits = 0;
+  private long misses = 0;
+
+  public LruImportedAstCache() {
+    this(DEFAULT_MAXIMUM_SIZE);
+  }
+
+  public LruImportedAstCache(int maximumSize) {
+    if (maximumSize < 1)
+      throw new IllegalArgumentException("Cache size must be positive: " + maximumSize);
+
+    this.maximumSize = maximumSize;
+    this.storage = new LinkedHashMap<LessSource, ParsedImport>(16, 0.75f, true) {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<LessSource, ParsedImport> eldest) {
+        return size() > LruImportedAstCache.this.maximumSize;
+      }
+
+    };
+  }
+
+  @Override
+  public synchronized ParsedImport get(LessSource source, String content) {
+    ParsedImport result = storage.get(source);
+    if (result == null || !result.isParsedFrom(content)) {
+      misses++;
+      return null;
+    }
+
+    hits++;
+    return result;
+  }
+
+  @Override
+  public synchronized void put(LessSource source, ParsedImport parsedImport) {
+    storage.put(source, parsedImport.copy());
+  }
+
+  public synchronized void clear() {
+    storage.clear();
+  }
+
+  public synchronized int size() {
+    return storage.size();
+  }
+
+  public int getMaximumSize() {
+    return maximumSize;
+  }
+
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+}
@@ -0,0 +1,19 @@
+package com.github.sommeri.less4j.core.cache;
+
+import com.github.sommeri.less4j.LessSource;
+
+/**
+ * Caches nothing. Each import is parsed again.
+ */
+public class NullImportedAstCache implements ImportedAstCache {
+
+  @Override
+  public ParsedImport get(LessSource source, String content) {
+    return null;
+  }
+
+  @Override
+  public void put(LessSource source, ParsedImport parsedImport) {
+  }
+
+}
@@ -0,0 +1,78 @@
+package com.github.sommeri.less4j.core.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.sommeri.less4j.LessCompiler.Problem;
+import com.github.sommeri.less4j.core.ast.StyleSheet;
+
+/**
+ * Parsed imported file together with warnings generated while it was parsed. 
+ * The original style sheet is never handed out, compilation modifies the tree
+ * so each call to {@link #getStyleSheet()} returns new deep copy (unless the 
+ * instance was created for single use).
+ * 
+ */
+public class ParsedImport {
+
+  private final String content;
+  private final StyleSheet styleSheet;
+  private final List<Problem> warnings;
+  private final boolean handOutCopies;
+
+  public ParsedImport(String content, StyleSheet styleSheet, List<Problem> warnings) {
+    this(content, styleSheet, warnings, true);
+  }
+
+  /**
+   * @param handOutCopies <code>false</code> if the instance is used only once and
+   *        the style sheet can be handed out without copying.
+   */
+  protected ParsedImport(String content, StyleSheet styleSheet, List<Problem> warnings, boolean handOutCopies) {
+    super();
+    this.content = content;
+    this.styleSheet = styleSheet;
+    this.warnings = Collections.unmodifiableList(new ArrayList<Problem>(warnings));
+    this.handOutCopies = handOutCopies;
+  }
+
+  public boolean isParsedFrom(String content) {
+    if (this.content == content)
+      return true;
+
+    if (this.content == null || content == null)
+      return false;
+
+    // hash code is cached by string, so this is cheap check before full comparison
+    return this.content.length() == content.length() && this.content.hashCode() == content.hashCode() && this.content.equals(content);
+  }
+
+  public String getContent() {
+    return content;
+  }
+
+  public StyleSheet getStyleSheet() {
+    if (!handOutCopies)
+      return styleSheet;
+
+    return styleSheet.clone();
+  }
+
+  // for caches that only read the tree, e.g. to serialize it
+  StyleSheet getStyleSheetWithoutCopying() {
+    return styleSheet;
+  }
+
+  /**
+   * @return new instance with its own deep copy of the style sheet.
+   */
+  public ParsedImport copy() {
+    return new ParsedImport(content, styleSheet.clone(), warnings);
+  }
+
+  public List<Problem> getWarnings() {
+    return warnings;
+  }
+
+}
@@ -0,0 +1,81 @@
+package com.github.sommeri.less4j.core.compiler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Hits and misses of caches used while references are solved. Calls that
+ * can not be cached at all are counted as uncacheable.
+ *
+ * Instances are thread safe, so that a shared compiler can sum up counts of
+ * all compilations.
+ *
+ */
+public class CacheStatistics {
+
+  public static final String GUARDS = "guards";
+  public static final String MIXIN_EXPANSIONS = "mixin expansions";
+  public static final String COMPILED_NAMESPACES = "compiled namespaces";
+
+  private static final int HITS = 0;
+  private static final int MISSES = 1;
+  private static final int UNCACHEABLE = 2;
+
+  private final Map<String, long[]> counts = new LinkedHashMap<String, long[]>();
+
+  public synchronized void add(String cache, long hits, long misses, long uncacheable) {
+    long[] known = counts.get(cache);
+    if (known == null) {
+      known = new long[3];
+      counts.put(cache, known);
+    }
+    known[HITS] += hits;
+    known[MISSES] += misses;
+    known[UNCACHEABLE] += uncacheable;
+  }
+
+  public void add(CacheStatistics other) {
+    for (Entry<String, long[]> entry : other.getCounts().entrySet()) {
+      long[] added = entry.getValue();
+      add(entry.getKey(), added[HITS], added[MISSES], added[UNCACHEABLE]);
+    }
+  }
+
+  public long getHits(String cache) {
+    return getCount(cache, HITS);
+  }
+
+  public long getMisses(String cache) {
+    return getCount(cache, MISSES);
+  }
+
+  public long getUncacheable(String cache) {
+    return getCount(cache, UNCACHEABLE);
+  }
+
+  private synchronized long getCount(String cache, int kind) {
+    long[] known = counts.get(cache);
+    return known == null ? 0 : known[kind];
+  }
+
+  private synchronized Map<String, long[]> getCounts() {
+    Map<String, long[]> result = new LinkedHashMap<String, long[]>();
+    for (Entry<String, long[]> entry : counts.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().clone());
+    }
+    return result;
+  }
+
+  public String report() {
+    StringBuilder result = new StringBuilder();
+    for (Entry<String, long[]> entry : getCounts().entrySet()) {
+      long[] known = entry.getValue();
+      if (result.length() > 0)
+        result.append(", ");
+      result.append(entry.getKey()).append(": ").append(known[HITS]).append(" hits ").append(known[MISSES]).append(" misses ").append(known[UNCACHEABLE]).append(" uncacheable");
+    }
+    return result.toString();
+  }
+
+}
@@ -1,14 +1,13 @@
 package com.github.sommeri.less4j.core.compiler;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import com.github.sommeri.less4j.LessSource;
 import com.github.sommeri.less4j.core.ast.ASTCssNode;
-import com.github.sommeri.less4j.core.ast.ASTCssNodeType;
 import com.github.sommeri.less4j.core.ast.Body;
 import com.github.sommeri.less4j.core.ast.Declaration;
 import com.github.sommeri.less4j.core.ast.Expression;
@@ -19,9 +18,12 @@ import com.github.sommeri.less4j.core.ast.Page;
 import com.github.sommeri.less4j.core.ast.PageMarginBox;
 import com.github.sommeri.less4j.core.ast.RuleSet;
 import com.github.sommeri.less4j.core.ast.StyleSheet;
+import com.github.sommeri.less4j.core.cache.ImportedAstCache;
+import com.github.sommeri.less4j.core.cache.NullImportedAstCache;
 import com.github.sommeri.less4j.core.compiler.expressions.ExpressionEvaluator;
 import com.github.sommeri.less4j.core.compiler.scopes.Scope;
 import com.github.sommeri.less4j.core.compiler.stages.ASTManipulator;
+import com.github.sommeri.less4j.core.compiler.stages.BodiesEdit;
 import com.github.sommeri.less4j.core.compiler.stages.InitialScopeExtractor;
 import com.github.sommeri.less4j.core.compiler.stages.MediaBubblerAndMerger;
 import com.github.sommeri.less4j.core.compiler.stages.NestedRulesCollector;
@@ -35,158 +37,223 @@ import com.github.sommeri.less4j.core.validators.CssAstValidator;
 public class LessToCssCompiler {
 
   private ProblemsHandler problemsHandler;
+  private final ImportedAstCache importedAstCache;
+  private final ExecutorService importsExecutor;
+  private final StageTimings timings = new StageTimings();
+  private final CacheStatistics cacheStatistics = new CacheStatistics();
   ASTManipulator astManipulator = new ASTManipulator();
 
   public LessToCssCompiler(ProblemsHandler problemsHandler) {
+    this(problemsHandler, new NullImportedAstCache());
+  }
+
+  public LessToCssCompiler(ProblemsHandler problemsHandler, ImportedAstCache importedAstCache) {
+    this(problemsHandler, importedAstCache, null);
+  }
+
+  public LessToCssCompiler(ProblemsHandler problemsHandler, ImportedAstCache importedAstCache, ExecutorService importsExecutor) {
     super();
     this.problemsHandler = problemsHandler;
+    this.importedAstCache = importedAstCache;
+    this.importsExecutor = importsExecutor;
   }
 
   public ASTCssNode compileToCss(StyleSheet less, LessSource source) {
-    resolveImports(less, source);
-    resolveReferences(less);
+    return compileToCss(less, source, null);
+  }
+
+  /**
+   * @param library precompiled library or <code>null</code> 
+   */
+  public ASTCssNode compileToCss(StyleSheet less, LessSource source, LibrarySnapshot library) {
+    long start = timings.start();
+    resolveImports(less, source, library);
+    start = timings.stop("imports", start);
+    resolveReferences(less, library);
+    start = timings.stop("references", start);
 
     //just a safety measure
     evaluateExpressions(less);
+    start = timings.stop("expressions", start);
     bubbleAndMergeMedia(less);
-    freeNestedRuleSets(less);
-    removeUselessLessElements(less);
+    start = timings.stop("media", start);
+    // nested rule sets are freed and cleaned of less elements in the same walk
+    freeNestedRuleSets(less, new UselessLessElementsRemover());
+    start = timings.stop("nested rule sets", start);
     //normalizeUrlsAndImportsInImportedFiles(less);
 
     //final clean up  
-    sortTopLevelElements(less);
-    removeUselessCharsets(less);
+    cleanTopLevelElements(less);
+    start = timings.stop("top level", start);
 
     //final validation
     validateFinalCss(less);
+    timings.stop("validation", start);
 
     return less;
   }
 
-  private void resolveImports(StyleSheet less, LessSource source) {
-    SimpleImportsSolver importsSolver = new SimpleImportsSolver(problemsHandler);
-    importsSolver.solveImports(less, source);
+  /**
+   * @return time spent in each stage of compilations done by this compiler
+   */
+  public StageTimings getTimings() {
+    return timings;
+  }
+
+  /**
+   * @return hits and misses of caches used by compilations done by this
+   *         compiler
+   */
+  public CacheStatistics getCacheStatistics() {
+    return cacheStatistics;
   }
 
-  private void resolveReferences(StyleSheet less) {
+  /**
+   * Resolves imports and extracts variables and mixins, but does not compile
+   * anything. Result can be used by any number of later compilations.
+   */
+  public LibrarySnapshot compileLibrary(StyleSheet less, LessSource source) {
+    long start = timings.start();
+    SimpleImportsSolver importsSolver = resolveImports(less, source, null);
+    start = timings.stop("imports", start);
     InitialScopeExtractor scopeBuilder = new InitialScopeExtractor();
     Scope scope = scopeBuilder.extractScope(less);
+    timings.stop("scope", start);
+
+    Set<LessSource> sources = new HashSet<LessSource>(importsSolver.getImportedSources());
+    sources.add(source);
+    return new LibrarySnapshot(sources, scope, less, problemsHandler.getWarnings());
+  }
+
+  private SimpleImportsSolver resolveImports(StyleSheet less, LessSource source, LibrarySnapshot library) {
+    SimpleImportsSolver importsSolver = new SimpleImportsSolver(problemsHandler, importedAstCache, importsExecutor);
+    if (library != null)
+      importsSolver.addProvidedSources(library.getSources());
+    importsSolver.solveImports(less, source);
+    return importsSolver;
+  }
+
+  private void resolveReferences(StyleSheet less, LibrarySnapshot library) {
+    InitialScopeExtractor scopeBuilder = new InitialScopeExtractor();
+    Scope scope;
+    if (library == null) {
+      scope = scopeBuilder.extractScope(less);
+    } else {
+      scope = scopeBuilder.extractScope(less, library.createRootScope(less));
+      library.prependRemainder(less);
+    }
 
     ReferencesSolver referencesSolver = new ReferencesSolver(problemsHandler);
     referencesSolver.solveReferences(less, scope);
+    referencesSolver.collectStatistics(cacheStatistics);
     // Warning at this point: ast changed, but the scope did not changed its structure. The scope stopped to be useful. 
   }
 
-  private void removeUselessLessElements(StyleSheet node) {
-    UselessLessElementsRemover remover = new UselessLessElementsRemover();
-    remover.removeUselessLessElements(node);
-  }
-
   @SuppressWarnings("unused")
   private void normalizeUrlsAndImportsInImportedFiles(StyleSheet node) {
     UrlsAndImportsNormalizer normalizer = new UrlsAndImportsNormalizer(problemsHandler);
     normalizer.normalizeUrlsAndImports(node);
   }
 
-  private void removeUselessCharsets(StyleSheet less) {
-    ASTManipulator astManipulator = new ASTManipulator();
-    Iterator<ASTCssNode> iterator = less.getChilds().iterator();
-    if (!iterator.hasNext())
-      return ;
-    
-    ASTCssNode node = iterator.next();
-    if (node.getType() != ASTCssNodeType.CHARSET_DECLARATION)
-      return;
-
-    if (!iterator.hasNext())
-      return ;
-
-    while (iterator.hasNext()) {
-      node = iterator.next();
-      if (node.getType() != ASTCssNodeType.CHARSET_DECLARATION)
-        return;
-      
-      astManipulator.removeFromBody(node);
-    }
-  }
-
   private void bubbleAndMergeMedia(StyleSheet less) {
     MediaBubblerAndMerger bubblerAndMerger = new MediaBubblerAndMerger(problemsHandler);
     bubblerAndMerger.bubbleAndMergeMedia(less);
   }
 
-  private void sortTopLevelElements(StyleSheet less) {
-    Collections.sort(less.getMembers(), new Comparator<ASTCssNode>() {
+  /**
+   * Moves charsets and imports to the top, other members keep their order.
+   * Only the first charset is kept.
+   */
+  private void cleanTopLevelElements(StyleSheet less) {
+    List<ASTCssNode> members = less.getMembers();
+    List<ASTCssNode> charsets = new ArrayList<ASTCssNode>(1);
+    List<ASTCssNode> imports = new ArrayList<ASTCssNode>();
+    List<ASTCssNode> others = new ArrayList<ASTCssNode>(members.size());
+    for (ASTCssNode member : members) {
+      switch (member.getType()) {
+      case CHARSET_DECLARATION:
+        if (charsets.isEmpty()) {
+          charsets.add(member);
+        } else {
+          member.setParent(null);
+        }
+        break;
 
-      @Override
-      public int compare(ASTCssNode first, ASTCssNode second) {
-        return code(first) - code(second);
-      }
+      case IMPORT:
+        imports.add(member);
+        break;
 
-      private int code(ASTCssNode node) {
-        if (node.getType() == ASTCssNodeType.CHARSET_DECLARATION)
-          return 0;
-        if (node.getType() == ASTCssNodeType.IMPORT)
-          return 1;
-        
-        return 2;
+      default:
+        others.add(member);
       }
-    });
+    }
+
+    members.clear();
+    members.addAll(charsets);
+    members.addAll(imports);
+    members.addAll(others);
   }
 
-  private void freeNestedRuleSets(Body body) {
+  private void freeNestedRuleSets(Body body, UselessLessElementsRemover remover) {
     NestedRulesCollector nestedRulesCollector = new NestedRulesCollector();
+    BodiesEdit additions = new BodiesEdit();
 
-    List<? extends ASTCssNode> childs = new ArrayList<ASTCssNode>(body.getChilds());
-    for (ASTCssNode kid : childs) {
+    // additions are applied in the end, so childs can be iterated directly
+    for (ASTCssNode kid : body.getChilds()) {
       switch (kid.getType()) {
       case RULE_SET: {
         List<RuleSet> nestedRulesets = nestedRulesCollector.collectNestedRuleSets((RuleSet) kid);
-        astManipulator.addIntoBody(nestedRulesets, kid);
+        additions.addAfter(kid, nestedRulesets);
+        remover.removeUselessLessElements(kid);
+        for (RuleSet nested : nestedRulesets) {
+          remover.removeUselessLessElements(nested);
+        }
         break;
       }
       case MEDIA: {
-        freeNestedRuleSets(((Media) kid).getBody());
+        freeNestedRuleSets(((Media) kid).getBody(), remover);
         break;
       }
       case PAGE: {
         Page page = (Page) kid;
-        freeNestedRuleSets(page.getBody());
+        freeNestedRuleSets(page.getBody(), remover);
         break;
       }
       case PAGE_MARGIN_BOX: {
         PageMarginBox marginBox = (PageMarginBox) kid;
-        freeNestedRuleSets(marginBox.getBody());
+        freeNestedRuleSets(marginBox.getBody(), remover);
         break;
       }
       default:
-        //nothing is needed
+        remover.removeUselessLessElements(kid);
       }
     }
+    additions.apply();
   }
 
-  private void evaluateExpressions(ASTCssNode node) {
-    ASTManipulator manipulator = new ASTManipulator();
+  private void evaluateExpressions(StyleSheet less) {
     //variables are not supposed to be there now
-    ExpressionEvaluator expressionEvaluator = new ExpressionEvaluator(problemsHandler);
+    evaluateExpressions(less, new ExpressionEvaluator(problemsHandler));
+  }
 
+  private void evaluateExpressions(ASTCssNode node, ExpressionEvaluator expressionEvaluator) {
     if (node instanceof Expression) {
       Expression value = expressionEvaluator.evaluate((Expression) node);
-      manipulator.replace(node, value);
+      astManipulator.replace(node, value);
     } else {
       List<? extends ASTCssNode> childs = node.getChilds();
       for (ASTCssNode kid : childs) {
         switch (kid.getType()) {
         case FIXED_MEDIA_EXPRESSION:
-          evaluateInMediaExpressions((FixedMediaExpression) kid);
+          evaluateInMediaExpressions((FixedMediaExpression) kid, expressionEvaluator);
           break;
 
         case DECLARATION:
-          evaluateInDeclaration((Declaration) kid);
+          evaluateInDeclaration((Declaration) kid, expressionEvaluator);
           break;
 
         default:
-          evaluateExpressions(kid);
+          evaluateExpressions(kid, expressionEvaluator);
           break;
         }
 
@@ -194,17 +261,17 @@ public class LessToCssCompiler {
     }
   }
 
-  private void evaluateInDeclaration(Declaration node) {
+  private void evaluateInDeclaration(Declaration node, ExpressionEvaluator expressionEvaluator) {
     if (!node.isFontDeclaration()) {
-      evaluateExpressions(node);
+      evaluateExpressions(node, expressionEvaluator);
       return;
     }
   }
 
-  private void evaluateInMediaExpressions(FixedMediaExpression node) {
+  private void evaluateInMediaExpressions(FixedMediaExpression node, ExpressionEvaluator expressionEvaluator) {
     MediaExpressionFeature feature = node.getFeature();
     if (!feature.isRatioFeature()) {
-      evaluateExpressions(node);
+      evaluateExpressions(node, expressionEvaluator);
       return;
     }
   }
@@ -0,0 +1,79 @@
+package com.github.sommeri.less4j.core.compiler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.github.sommeri.less4j.LessCompiler.Problem;
+import com.github.sommeri.less4j.LessSource;
+import com.github.sommeri.less4j.core.ast.ASTCssNode;
+import com.github.sommeri.less4j.core.ast.StyleSheet;
+import com.github.sommeri.less4j.core.compiler.scopes.Scope;
+
+/**
+ * Library compiled once and reused by many style sheets - typically variables
+ * and mixins imported at the beginning of each of them. The snapshot keeps
+ * library scope with all its variables and mixins and whatever remained in
+ * library tree after they were extracted.
+ * 
+ * Compiled style sheet gets its own copy of the library scope with its own
+ * declarations layered on top of it. Library behaves as if it was imported at
+ * the very beginning of the style sheet. Imports of library files in the
+ * style sheet are ignored.
+ * 
+ * Snapshot is read only and can be shared between threads.
+ * 
+ */
+public class LibrarySnapshot {
+
+  private final Set<LessSource> sources;
+  private final Scope scope;
+  private final StyleSheet remainder;
+  private final List<Problem> warnings;
+
+  public LibrarySnapshot(Collection<LessSource> sources, Scope scope, StyleSheet remainder, List<Problem> warnings) {
+    super();
+    this.sources = Collections.unmodifiableSet(new HashSet<LessSource>(sources));
+    this.scope = scope;
+    this.remainder = remainder;
+    this.warnings = Collections.unmodifiableList(new ArrayList<Problem>(warnings));
+  }
+
+  /**
+   * @return library file and all files it imports.
+   */
+  public Set<LessSource> getSources() {
+    return sources;
+  }
+
+  /**
+   * @return warnings reported while the library was compiled.
+   */
+  public List<Problem> getWarnings() {
+    return warnings;
+  }
+
+  /**
+   * @return new root scope that contains copy of library variables and mixins.
+   */
+  public Scope createRootScope(StyleSheet owner) {
+    return scope.copyTreeWithOwnData(owner);
+  }
+
+  /**
+   * Adds copy of library remainder at the beginning of the style sheet. It must
+   * be called after the style sheet scope was extracted, library scopes are
+   * already part of the scope created by {@link #createRootScope(StyleSheet)}.
+   */
+  public void prependRemainder(StyleSheet styleSheet) {
+    List<ASTCssNode> members = remainder.clone().getMembers();
+    for (ASTCssNode member : members) {
+      member.setParent(styleSheet);
+    }
+    styleSheet.getMembers().addAll(0, members);
+  }
+
+}
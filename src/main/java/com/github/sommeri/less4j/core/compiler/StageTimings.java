@@ -0,0 +1,68 @@
+package com.github.sommeri.less4j.core.compiler;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Time spent in each compilation stage. Stages are kept in the order in
+ * which they first run, repeated stages accumulate their time.
+ *
+ * Instances are thread safe, so that a shared compiler can sum up timings
+ * of all compilations.
+ *
+ */
+public class StageTimings {
+
+  private static final long NANOS_IN_MILLI = 1000000;
+
+  private final Map<String, Long> nanos = new LinkedHashMap<String, Long>();
+
+  public long start() {
+    return System.nanoTime();
+  }
+
+  /**
+   * @return current time, so that the next stage can start right away
+   */
+  public long stop(String stage, long start) {
+    long now = System.nanoTime();
+    add(stage, now - start);
+    return now;
+  }
+
+  public void add(StageTimings other) {
+    for (Entry<String, Long> entry : other.getNanos().entrySet()) {
+      add(entry.getKey(), entry.getValue());
+    }
+  }
+
+  private synchronized void add(String stage, long duration) {
+    Long previous = nanos.get(stage);
+    nanos.put(stage, (previous == null ? 0 : previous) + duration);
+  }
+
+  /**
+   * @return snapshot of current timings
+   */
+  public synchronized Map<String, Long> getNanos() {
+    return Collections.unmodifiableMap(new LinkedHashMap<String, Long>(nanos));
+  }
+
+  public synchronized long getMillis(String stage) {
+    Long result = nanos.get(stage);
+    return result == null ? 0 : result / NANOS_IN_MILLI;
+  }
+
+  public String report() {
+    StringBuilder result = new StringBuilder();
+    for (Entry<String, Long> entry : getNanos().entrySet()) {
+      if (result.length() > 0)
+        result.append(", ");
+      result.append(entry.getKey()).append(": ").append(entry.getValue() / NANOS_IN_MILLI).append(" ms");
+    }
+    return result.toString();
+  }
+
+}
@@ -58,7 +58,7 @@ public class ColorFunctions implements FunctionsPackage {
   protected static final String TINT = "tint";
   protected static final String SHADE = "shade";
 
-  private static Map<String, Function> FUNCTIONS = new HashMap<String, Function>();
+  static final Map<String, Function> FUNCTIONS = new HashMap<String, Function>();
   static {
     FUNCTIONS.put(RGB, new RGB());
     FUNCTIONS.put(RGBA, new RGBA());
@@ -215,7 +215,7 @@ class HSL extends AbstractColorFunction {
   }
 
   private Expression evaluate(NumberExpression h, NumberExpression s, NumberExpression l, HiddenTokenAwareTree token) {
-    return hsla(new HSLAValue(number(h), number(s), number(l)), token);
+    return hsla(number(h), number(s), number(l), 1.0, token);
   }
 
   @Override
@@ -249,7 +249,7 @@ class HSLA extends AbstractColorFunction {
   }
 
   private Expression evaluate(NumberExpression h, NumberExpression s, NumberExpression l, NumberExpression a, HiddenTokenAwareTree token) {
-    return hsla(new HSLAValue(number(h), number(s), number(l), number(a)), token);
+    return hsla(number(h), number(s), number(l), number(a), token);
   }
 
   @Override
@@ -374,8 +374,7 @@ class Hue extends AbstractColorOperationFunction {
 
   @Override
   protected Expression evaluate(ColorExpression color, ProblemsHandler problemsHandler, HiddenTokenAwareTree token) {
-    HSLAValue hsla = toHSLA(color);
-    return new NumberExpression(token, Double.valueOf(Math.round(hsla.h)), "", null, Dimension.NUMBER);
+    return new NumberExpression(token, Double.valueOf(Math.round(hue(color))), "", null, Dimension.NUMBER);
   }
 
   @Override
@@ -389,8 +388,7 @@ class Saturation extends AbstractColorOperationFunction {
 
   @Override
   protected Expression evaluate(ColorExpression color, ProblemsHandler problemsHandler, HiddenTokenAwareTree token) {
-    HSLAValue hsla = toHSLA(color);
-    return new NumberExpression(token, Double.valueOf(Math.round(hsla.s * 100)), "%", null, Dimension.PERCENTAGE);
+    return new NumberExpression(token, Double.valueOf(Math.round(saturation(color) * 100)), "%", null, Dimension.PERCENTAGE);
   }
 
   @Override
@@ -404,8 +402,7 @@ class Lightness extends AbstractColorOperationFunction {
 
   @Override
   protected Expression evaluate(ColorExpression color, ProblemsHandler problemsHandler, HiddenTokenAwareTree token) {
-    HSLAValue hsla = toHSLA(color);
-    return new NumberExpression(token, Double.valueOf(Math.round(hsla.l * 100)), "%", null, Dimension.PERCENTAGE);
+    return new NumberExpression(token, Double.valueOf(Math.round(lightness(color) * 100)), "%", null, Dimension.PERCENTAGE);
   }
 
   @Override
@@ -544,14 +541,8 @@ class Saturate extends CssNameClashMultiParameterFunction {
     ColorExpression color = (ColorExpression) firstParam;
     NumberExpression amount = (NumberExpression) splitParameters.get(1);
 
-    HSLAValue hsla = AbstractColorFunction.toHSLA(color);
-    apply(amount, hsla);
-    return AbstractColorFunction.hsla(hsla, call.getUnderlyingStructure());
-  }
-
-  protected void apply(NumberExpression amount, HSLAValue hsla) {
-    hsla.s += amount.getValueAsDouble() / 100.0f;
-    hsla.s = AbstractColorFunction.clamp(hsla.s);
+    double s = AbstractColorFunction.clamp(AbstractColorFunction.saturation(color) + amount.getValueAsDouble() / 100.0f);
+    return AbstractColorFunction.hsla(AbstractColorFunction.hue(color), s, AbstractColorFunction.lightness(color), color.getAlpha(), call.getUnderlyingStructure());
   }
 
   @Override
@@ -585,9 +576,8 @@ class Saturate extends CssNameClashMultiParameterFunction {
 class Desaturate extends AbstractColorHSLAmountFunction {
 
   @Override
-  protected void apply(NumberExpression amount, HSLAValue hsla) {
-    hsla.s -= amount.getValueAsDouble() / 100.0f;
-    hsla.s = clamp(hsla.s);
+  protected Expression evaluate(double amount, double h, double s, double l, double a, HiddenTokenAwareTree token) {
+    return hsla(h, clamp(s - amount / 100.0f), l, a, token);
   }
 
   @Override
@@ -600,9 +590,8 @@ class Desaturate extends AbstractColorHSLAmountFunction {
 class Lighten extends AbstractColorHSLAmountFunction {
 
   @Override
-  protected void apply(NumberExpression amount, HSLAValue hsla) {
-    hsla.l += amount.getValueAsDouble() / 100.0f;
-    hsla.l = clamp(hsla.l);
+  protected Expression evaluate(double amount, double h, double s, double l, double a, HiddenTokenAwareTree token) {
+    return hsla(h, s, clamp(l + amount / 100.0f), a, token);
   }
 
   @Override
@@ -615,9 +604,8 @@ class Lighten extends AbstractColorHSLAmountFunction {
 class Darken extends AbstractColorHSLAmountFunction {
 
   @Override
-  protected void apply(NumberExpression amount, HSLAValue hsla) {
-    hsla.l -= amount.getValueAsDouble() / 100.0f;
-    hsla.l = clamp(hsla.l);
+  protected Expression evaluate(double amount, double h, double s, double l, double a, HiddenTokenAwareTree token) {
+    return hsla(h, s, clamp(l - amount / 100.0f), a, token);
   }
 
   @Override
@@ -630,9 +618,8 @@ class Darken extends AbstractColorHSLAmountFunction {
 class FadeIn extends AbstractColorHSLAmountFunction {
 
   @Override
-  protected void apply(NumberExpression amount, HSLAValue hsla) {
-    hsla.a += amount.getValueAsDouble() / 100.0f;
-    hsla.a = clamp(hsla.a);
+  protected Expression evaluate(double amount, double h, double s, double l, double a, HiddenTokenAwareTree token) {
+    return hsla(h, s, l, clamp(a + amount / 100.0f), token);
   }
 
   @Override
@@ -645,9 +632,8 @@ class FadeIn extends AbstractColorHSLAmountFunction {
 class FadeOut extends AbstractColorHSLAmountFunction {
 
   @Override
-  protected void apply(NumberExpression amount, HSLAValue hsla) {
-    hsla.a -= amount.getValueAsDouble() / 100.0f;
-    hsla.a = clamp(hsla.a);
+  protected Expression evaluate(double amount, double h, double s, double l, double a, HiddenTokenAwareTree token) {
+    return hsla(h, s, l, clamp(a - amount / 100.0f), token);
   }
 
   @Override
@@ -660,9 +646,8 @@ class FadeOut extends AbstractColorHSLAmountFunction {
 class Fade extends AbstractColorHSLAmountFunction {
 
   @Override
-  protected void apply(NumberExpression amount, HSLAValue hsla) {
-    hsla.a = (amount.getValueAsDouble() / 100.0f);
-    hsla.a = clamp(hsla.a);
+  protected Expression evaluate(double amount, double h, double s, double l, double a, HiddenTokenAwareTree token) {
+    return hsla(h, s, l, clamp(amount / 100.0f), token);
   }
 
   @Override
@@ -675,9 +660,9 @@ class Fade extends AbstractColorHSLAmountFunction {
 class Spin extends AbstractColorHSLAmountFunction {
 
   @Override
-  protected void apply(NumberExpression amount, HSLAValue hsla) {
-    double hue = ((hsla.h + amount.getValueAsDouble()) % 360);
-    hsla.h = hue < 0 ? 360 + hue : hue;
+  protected Expression evaluate(double amount, double h, double s, double l, double a, HiddenTokenAwareTree token) {
+    double hue = ((h + amount) % 360);
+    return hsla(hue < 0 ? 360 + hue : hue, s, l, a, token);
   }
 
   @Override
@@ -697,11 +682,7 @@ class Mix extends AbstractColorFunction {
   protected Expression evaluate(List<Expression> splitParameters, ProblemsHandler problemsHandler, HiddenTokenAwareTree token) {
     ColorExpression color1 = (ColorExpression) splitParameters.get(0);
     ColorExpression color2 = (ColorExpression) splitParameters.get(1);
-    NumberExpression weight = splitParameters.size() > 2 ? (NumberExpression) splitParameters.get(2) : null;
-    
-    if (weight == null) {
-      weight = new NumberExpression(token, Double.valueOf(50), "%", null, Dimension.PERCENTAGE);
-    }
+    double weight = splitParameters.size() > 2 ? ((NumberExpression) splitParameters.get(2)).getValueAsDouble() : 50;
     
     return mix(color1, color2, weight, token);
   }
@@ -739,9 +720,7 @@ class Greyscale extends AbstractColorOperationFunction {
 
   @Override
   protected Expression evaluate(ColorExpression color, ProblemsHandler problemsHandler, HiddenTokenAwareTree token) {
-    HSLAValue hsla = toHSLA(color);
-    hsla.s = 0;
-    return hsla(hsla, token);
+    return hsla(hue(color), 0, lightness(color), color.getAlpha(), token);
   }
 
   @Override
@@ -768,15 +747,13 @@ class Contrast extends CssNameClashMultiParameterFunction {
     HiddenTokenAwareTree token = call.getUnderlyingStructure();
     
     ColorExpression color = (ColorExpression) splitParameters.get(0);
-    ColorExpression dark = (ColorExpression) (splitParameters.size() > 1 ? splitParameters.get(1) : new ColorExpression(token, 0, 0, 0));
-    ColorExpression light = (ColorExpression) (splitParameters.size() > 2 ? splitParameters.get(2) : new ColorExpression(token, 255, 255, 255));
-    NumberExpression threshold = (NumberExpression) (splitParameters.size() > 3 ? splitParameters.get(3) : new NumberExpression(token, 43.0, "%", null, Dimension.PERCENTAGE));
-    double thresholdValue = AbstractColorFunction.number(threshold);
+    // 43%
+    double thresholdValue = splitParameters.size() > 3 ? AbstractColorFunction.number((NumberExpression) splitParameters.get(3)) : 43.0 / 100;
     
     if (((0.2126 * (color.getRed()/255) + 0.7152 * (color.getGreen()/255) + 0.0722 * (color.getBlue()/255)) * color.getAlpha()) < thresholdValue) {
-      return light;
+      return splitParameters.size() > 2 ? (ColorExpression) splitParameters.get(2) : new ColorExpression(token, 255, 255, 255);
     } else {
-      return dark;
+      return splitParameters.size() > 1 ? (ColorExpression) splitParameters.get(1) : new ColorExpression(token, 0, 0, 0);
     }
   }
 
@@ -945,7 +922,7 @@ class Tint extends AbstractColorAmountFunction {
 
   @Override
   protected Expression evaluate(ColorExpression color, NumberExpression amount, HiddenTokenAwareTree token) {
-    return mix(rgb(255, 255, 255, token), color, amount, token);
+    return mix(255, 255, 255, 1.0, color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha(), amount.getValueAsDouble(), token);
   }
 
   @Override
@@ -959,7 +936,7 @@ class Shade extends AbstractColorAmountFunction {
 
   @Override
   protected Expression evaluate(ColorExpression color, NumberExpression amount, HiddenTokenAwareTree token) {
-    return mix(rgb(0, 0, 0, token), color, amount, token);
+    return mix(0, 0, 0, 1.0, color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha(), amount.getValueAsDouble(), token);
   }
 
   @Override
@@ -1022,8 +999,9 @@ abstract class AbstractColorFunction extends CatchAllMultiParameterFunction {
     return new ColorExpression.ColorWithAlphaExpression(token, r, g, b, a);
   }
 
-  static ColorExpression hsla(HSLAValue hsla, HiddenTokenAwareTree token) {
-    double h = (hsla.h % 360.0) / 360.0, s = hsla.s, l = hsla.l, a = hsla.a;
+  static ColorExpression hsla(double h, double s, double l, double a, HiddenTokenAwareTree token) {
+    // floating point remainder is slow and returns hues in range unchanged
+    h = (h >= 0 && h < 360.0 ? h : h % 360.0) / 360.0;
 
     double m2 = l <= 0.5 ? l * (s + 1) : l + s - l * s;
     double m1 = l * 2 - m2;
@@ -1059,13 +1037,20 @@ abstract class AbstractColorFunction extends CatchAllMultiParameterFunction {
     int i = (int) Math.floor((h / 60) % 6);
     double f = (h / 60) - i;
 
-    double[] vs = new double[] { v,
-              v * (1 - s),
-              v * (1 - f * s),
-              v * (1 - (1 - f) * s)
-    };
+    return rgba(hsvaComponent(hsvaPerm[i][0], v, s, f) * 255, hsvaComponent(hsvaPerm[i][1], v, s, f) * 255, hsvaComponent(hsvaPerm[i][2], v, s, f) * 255, a, token);
+  }
 
-    return rgba(vs[hsvaPerm[i][0]] * 255, vs[hsvaPerm[i][1]] * 255, vs[hsvaPerm[i][2]] * 255, a, token);
+  private static double hsvaComponent(int index, double v, double s, double f) {
+    switch (index) {
+    case 0:
+      return v;
+    case 1:
+      return v * (1 - s);
+    case 2:
+      return v * (1 - f * s);
+    default:
+      return v * (1 - (1 - f) * s);
+    }
   }
   
   /**
@@ -1075,69 +1060,78 @@ abstract class AbstractColorFunction extends CatchAllMultiParameterFunction {
    * @param weight number 0-100.
    * @return
    */
-  protected static Expression mix(ColorExpression color1, ColorExpression color2, NumberExpression weight, HiddenTokenAwareTree token) {
-    double p = weight.getValueAsDouble() / 100.0;
+  protected static Expression mix(ColorExpression color1, ColorExpression color2, double weight, HiddenTokenAwareTree token) {
+    return mix(color1.getRed(), color1.getGreen(), color1.getBlue(), color1.getAlpha(), color2.getRed(), color2.getGreen(), color2.getBlue(), color2.getAlpha(), weight, token);
+  }
+
+  protected static Expression mix(double r1, double g1, double b1, double a1, double r2, double g2, double b2, double a2, double weight, HiddenTokenAwareTree token) {
+    double p = weight / 100.0;
     double w = p * 2 - 1;
-    double a = color1.getAlpha() - color2.getAlpha();
+    double a = a1 - a2;
   
     double w1 = (((w * a == -1) ? w : (w + a) / (1 + w * a)) + 1) / 2.0;
     double w2 = 1 - w1;
   
-    return rgba(color1.getRed() * w1 + color2.getRed() * w2, 
-        color1.getGreen() * w1 + color2.getGreen() * w2, 
-        color1.getBlue() * w1 + color2.getBlue() * w2,
-        color1.getAlpha() * p + color2.getAlpha() * (1 - p), token);
+    return rgba(r1 * w1 + r2 * w2, 
+        g1 * w1 + g2 * w2, 
+        b1 * w1 + b2 * w2,
+        a1 * p + a2 * (1 - p), token);
   }
 
-  static HSLAValue toHSLA(ColorExpression color) {
-    double r = color.getRed() / 255.0, g = color.getGreen() / 255.0, b = color.getBlue() / 255.0, a = color.getAlpha();
-
-    double max = Math.max(r, Math.max(g, b)), min = Math.min(r, Math.min(g, b));
-    double h, s, l = (max + min) / 2, d = max - min;
+  static double hue(ColorExpression color) {
+    double r = color.getRed() / 255.0, g = color.getGreen() / 255.0, b = color.getBlue() / 255.0;
+    return hue(r, g, b, Math.max(r, Math.max(g, b)), Math.min(r, Math.min(g, b)));
+  }
 
-    if (max == min) {
-      h = s = 0;
-    } else {
-      s = l > 0.5 ? d / (2 - max - min) : d / (max + min);
+  static double saturation(ColorExpression color) {
+    double r = color.getRed() / 255.0, g = color.getGreen() / 255.0, b = color.getBlue() / 255.0;
+    return saturation(Math.max(r, Math.max(g, b)), Math.min(r, Math.min(g, b)));
+  }
 
-      if (max == r) {
-        h = (g - b) / d + (g < b ? 6 : 0);
-      } else if (max == g) {
-        h = (b - r) / d + 2;
-      } else {
-        h = (r - g) / d + 4;
-      }
+  static double lightness(ColorExpression color) {
+    double r = color.getRed() / 255.0, g = color.getGreen() / 255.0, b = color.getBlue() / 255.0;
+    return lightness(Math.max(r, Math.max(g, b)), Math.min(r, Math.min(g, b)));
+  }
 
-      h /= 6;
+  /**
+   * Channels are in the range 0-1, max and min are the largest and the
+   * smallest of them.
+   * 
+   * @return hue in degrees
+   */
+  static double hue(double r, double g, double b, double max, double min) {
+    if (max == min)
+      return 0;
+
+    double h, d = max - min;
+    if (max == r) {
+      h = (g - b) / d + (g < b ? 6 : 0);
+    } else if (max == g) {
+      h = (b - r) / d + 2;
+    } else {
+      h = (r - g) / d + 4;
     }
-
-    return new HSLAValue((h * 360), s, l, a);
+    return (h / 6) * 360;
   }
 
-}
-
-class HSLAValue {
-  public double h, s, l, a;
+  /**
+   * @return hsl saturation in the range 0-1
+   */
+  static double saturation(double max, double min) {
+    if (max == min)
+      return 0;
 
-  public HSLAValue() {
-    super();
+    double l = (max + min) / 2, d = max - min;
+    return l > 0.5 ? d / (2 - max - min) : d / (max + min);
   }
 
-  public HSLAValue(double h, double s, double l, double a) {
-    super();
-    this.h = h;
-    this.s = s;
-    this.l = l;
-    this.a = a;
+  /**
+   * @return lightness in the range 0-1
+   */
+  static double lightness(double max, double min) {
+    return (max + min) / 2;
   }
 
-  public HSLAValue(double h, double s, double l) {
-    super();
-    this.h = h;
-    this.s = s;
-    this.l = l;
-    this.a = 1.0f;
-  }
 }
 
 abstract class AbstractColorAmountFunction extends AbstractColorFunction {
@@ -1179,19 +1173,18 @@ abstract class AbstractColorHSLAmountFunction extends AbstractColorAmountFunctio
 
   @Override
   protected Expression evaluate(ColorExpression color, NumberExpression amount, HiddenTokenAwareTree token) {
-    HSLAValue hsla = toHSLA(color);
-
-    apply(amount, hsla);
+    double r = color.getRed() / 255.0, g = color.getGreen() / 255.0, b = color.getBlue() / 255.0;
+    double max = Math.max(r, Math.max(g, b)), min = Math.min(r, Math.min(g, b));
 
-    return hsla(hsla, token);
+    return evaluate(amount.getValueAsDouble(), hue(r, g, b, max, min), saturation(max, min), lightness(max, min), color.getAlpha(), token);
   }
 
   /**
-   * Apply the amount to the given hsla array.
+   * Apply the amount to hue, saturation, lightness and alpha of the color.
    * 
    * @param amount
-   * @param hsla
+   * @return resulting color
    */
-  protected abstract void apply(NumberExpression amount, HSLAValue hsla);
+  protected abstract Expression evaluate(double amount, double h, double s, double l, double a, HiddenTokenAwareTree token);
 
 }
@@ -39,15 +39,17 @@ import com.github.sommeri.less4j.core.problems.ProblemsHandler;
 
 public class ExpressionEvaluator {
 
+  // stateless helpers are shared by all evaluators
+  private static final ListCalculator LIST_CALCULATOR = new ListCalculator();
+  private static final ExpressionComparator COMPARATOR = new GuardsComparator();
+  private static final StringInterpolator STRING_INTERPOLATOR = new StringInterpolator();
+
   private VariableCycleDetector cycleDetector = new VariableCycleDetector();
   private final Scope scope;
   private final ProblemsHandler problemsHandler;
+  // many evaluators never meet an arithmetic expression, so calculators are created lazily
   private ArithmeticCalculator arithmeticCalculator;
-  private ListCalculator listCalculator = new ListCalculator();
   private ColorsCalculator colorsCalculator;
-  private ExpressionComparator comparator = new GuardsComparator();
-  private List<FunctionsPackage> functions = new ArrayList<FunctionsPackage>();
-  private StringInterpolator stringInterpolator = new StringInterpolator();
 
   public ExpressionEvaluator(ProblemsHandler problemsHandler) {
     this(new NullScope(), problemsHandler);
@@ -57,13 +59,18 @@ public class ExpressionEvaluator {
     super();
     this.scope = scope == null ? new NullScope() : scope;
     this.problemsHandler = problemsHandler;
-    arithmeticCalculator = new ArithmeticCalculator(problemsHandler);
-    colorsCalculator = new ColorsCalculator(problemsHandler);
-    functions.add(new MathFunctions(problemsHandler));
-    functions.add(new StringFunctions(problemsHandler));
-    functions.add(new ColorFunctions(problemsHandler));
-    functions.add(new MiscFunctions(problemsHandler));
-    functions.add(new TypeFunctions(problemsHandler));
+  }
+
+  private ArithmeticCalculator getArithmeticCalculator() {
+    if (arithmeticCalculator == null)
+      arithmeticCalculator = new ArithmeticCalculator(problemsHandler);
+    return arithmeticCalculator;
+  }
+
+  private ColorsCalculator getColorsCalculator() {
+    if (colorsCalculator == null)
+      colorsCalculator = new ColorsCalculator(problemsHandler);
+    return colorsCalculator;
   }
 
   public Expression joinAll(List<Expression> allArguments, ASTCssNode parent) {
@@ -105,12 +112,12 @@ public class ExpressionEvaluator {
   }
 
   public Expression evaluate(CssString input) {
-    String value = stringInterpolator.replaceIn(input.getValue(), this, input.getUnderlyingStructure());
+    String value = STRING_INTERPOLATOR.replaceIn(input.getValue(), this, input.getUnderlyingStructure());
     return new CssString(input.getUnderlyingStructure(), value, input.getQuoteType());
   }
   
   public Expression evaluate(EscapedValue input) {
-    String value = stringInterpolator.replaceIn(input.getValue(), this, input.getUnderlyingStructure());
+    String value = STRING_INTERPOLATOR.replaceIn(input.getValue(), this, input.getUnderlyingStructure());
     return new EscapedValue(input.getUnderlyingStructure(), value);
   }
 
@@ -126,12 +133,41 @@ public class ExpressionEvaluator {
       return new FaultyExpression(input);
     }
 
+    // values that are already there are returned as they are
+    if (!needsComputation(value))
+      return evaluate(value);
+
+    String name = input.getName();
+    Expression remembered = scope.getEvaluatedValue(name);
+    if (remembered != null)
+      return remembered.clone();
+
+    int problemsBefore = problemsHandler.getProblemsCount();
     cycleDetector.enteringVariableValue(input);
     Expression result = evaluate(value);
     cycleDetector.leftVariableValue();
+    // evaluation that reported problems must run again to report them again
+    if (problemsHandler.getProblemsCount() == problemsBefore)
+      scope.storeEvaluatedValue(name, result.clone());
+
     return result;
   }
 
+  private boolean needsComputation(Expression value) {
+    switch (value.getType()) {
+    case IDENTIFIER_EXPRESSION:
+    case COLOR_EXPRESSION:
+    case NUMBER:
+    case FAULTY_EXPRESSION:
+    case UNICODE_RANGE_EXPRESSION:
+    case EMPTY_EXPRESSION:
+      return false;
+
+    default:
+      return true;
+    }
+  }
+
   public Expression evaluateIfPresent(Variable input) {
     Expression value = scope.getValue(input);
     if (value == null) {
@@ -220,7 +256,7 @@ public class ExpressionEvaluator {
 
     ComparisonExpressionOperator operator = input.getOperator();
     if (operator.getOperator() == ComparisonExpressionOperator.Operator.OPEQ)
-      return comparator.equal(leftE, rightE);
+      return COMPARATOR.equal(leftE, rightE);
 
     if (leftE.getType() != ASTCssNodeType.NUMBER) {
       problemsHandler.incompatibleComparisonOperand(leftE, operator);
@@ -269,10 +305,9 @@ public class ExpressionEvaluator {
     List<Expression> splitParameters = evaluatedParameter.splitByComma();
     
     if (!input.isCssOnlyFunction()) { 
-      for (FunctionsPackage pack : functions) {
-        if (pack.canEvaluate(input, splitParameters))
-          return pack.evaluate(input, splitParameters, evaluatedParameter);
-      }
+      Function function = FunctionsRegistry.get(input.getName());
+      if (function != null)
+        return function.evaluate(splitParameters, problemsHandler, input, evaluatedParameter);
     }
     
     UnknownFunction unknownFunction = new UnknownFunction();
@@ -306,14 +341,16 @@ public class ExpressionEvaluator {
     if (leftValue.isFaulty() || rightValue.isFaulty())
       return new FaultyExpression(input);
 
+    ArithmeticCalculator arithmeticCalculator = getArithmeticCalculator();
     if (arithmeticCalculator.accepts(input.getOperator(), leftValue, rightValue))
       return arithmeticCalculator.evalute(input, leftValue, rightValue);
 
+    ColorsCalculator colorsCalculator = getColorsCalculator();
     if (colorsCalculator.accepts(input.getOperator(), leftValue, rightValue))
       return colorsCalculator.evalute(input, leftValue, rightValue);
 
-    if (listCalculator.accepts(input.getOperator()))
-      return listCalculator.evalute(input, leftValue, rightValue);
+    if (LIST_CALCULATOR.accepts(input.getOperator()))
+      return LIST_CALCULATOR.evalute(input, leftValue, rightValue);
 
     problemsHandler.cannotEvaluate(input);
     return new FaultyExpression(input);
@@ -427,6 +464,15 @@ class NullScope extends Scope {
     return null;
   }
 
+  @Override
+  public Expression getEvaluatedValue(String name) {
+    return null;
+  }
+
+  @Override
+  public void storeEvaluatedValue(String name, Expression value) {
+  }
+
   @Override
   public void registerMixin(ReusableStructure mixin, Scope mixinsBodyScope) {
   }
@@ -0,0 +1,47 @@
+package com.github.sommeri.less4j.core.compiler.expressions;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * All built-in functions indexed by name. The registry is immutable and shared
+ * by all evaluators in all threads. If two packages define function with the
+ * same name, the one registered first wins - the same order in which
+ * evaluators used to ask packages one by one.
+ * 
+ */
+final class FunctionsRegistry {
+
+  private static final Map<String, Function> FUNCTIONS = build();
+
+  private FunctionsRegistry() {
+  }
+
+  private static Map<String, Function> build() {
+    Map<String, Function> result = new HashMap<String, Function>();
+    register(result, MathFunctions.FUNCTIONS);
+    register(result, StringFunctions.FUNCTIONS);
+    register(result, ColorFunctions.FUNCTIONS);
+    register(result, MiscFunctions.FUNCTIONS);
+    register(result, TypeFunctions.FUNCTIONS);
+    return Collections.unmodifiableMap(result);
+  }
+
+  private static void register(Map<String, Function> result, Map<String, Function> functions) {
+    for (Entry<String, Function> entry : functions.entrySet()) {
+      if (!result.containsKey(entry.getKey()))
+        result.put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * @return function with given name or <code>null</code> if there is no
+   *         such built-in function.
+   */
+  public static Function get(String name) {
+    return FUNCTIONS.get(name);
+  }
+
+}
@@ -32,7 +32,7 @@ public class MathFunctions implements FunctionsPackage {
   protected static final String ACOS = "acos";
   protected static final String PI = "pi";
 
-  private static Map<String, Function> FUNCTIONS = new HashMap<String, Function>();
+  static final Map<String, Function> FUNCTIONS = new HashMap<String, Function>();
   static {
     FUNCTIONS.put(PERCENTAGE, new Percentage());
     FUNCTIONS.put(FLOOR, new Floor());
@@ -25,7 +25,7 @@ public class MiscFunctions implements FunctionsPackage {
   protected static final String CONVERT = "convert";
   protected static final String EXTRACT = "extract";
 
-  private static Map<String, Function> FUNCTIONS = new HashMap<String, Function>();
+  static final Map<String, Function> FUNCTIONS = new HashMap<String, Function>();
   static {
     FUNCTIONS.put(COLOR, new Color());
     FUNCTIONS.put(UNIT, new Unit());
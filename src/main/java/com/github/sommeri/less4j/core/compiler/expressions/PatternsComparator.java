@@ -1,5 +1,10 @@
 package com.github.sommeri.less4j.core.compiler.expressions;
 
+import com.github.sommeri.less4j.core.ast.ColorExpression;
+import com.github.sommeri.less4j.core.ast.CssString;
+import com.github.sommeri.less4j.core.ast.EscapedValue;
+import com.github.sommeri.less4j.core.ast.Expression;
+import com.github.sommeri.less4j.core.ast.IdentifierExpression;
 import com.github.sommeri.less4j.core.ast.NumberExpression;
 
 public class PatternsComparator extends ExpressionComparator {
@@ -9,5 +14,56 @@ public class PatternsComparator extends ExpressionComparator {
     return equals(pattern.getSuffix(), numberExpression.getSuffix()) && equals(pattern.getValueAsDouble(), numberExpression.getValueAsDouble());
   }
 
+  /**
+   * Key usable to index patterns. See {@link #expressionKey(Expression)}.
+   * 
+   * @return key or <code>null</code> if the pattern can not be compared by key. Signed
+   *         patterns have no key, because they match both signed expressions and numbers. 
+   */
+  public String patternKey(Expression pattern) {
+    switch (pattern.getType()) {
+    case IDENTIFIER_EXPRESSION:
+    case ESCAPED_VALUE:
+    case NUMBER:
+    case STRING_EXPRESSION:
+    case COLOR_EXPRESSION:
+      return expressionKey(pattern);
+
+    default:
+      return null;
+    }
+  }
+
+  /**
+   * Pattern with non-null key is equal to an expression if and only if their keys are equal.
+   * 
+   * @return key of the expression or <code>null</code> if it can not be equal to any pattern
+   *         with key.
+   */
+  public String expressionKey(Expression expression) {
+    if (expression instanceof IdentifierExpression)
+      return "identifier:" + ((IdentifierExpression) expression).getValue();
+
+    if (expression instanceof EscapedValue)
+      return "escaped:" + ((EscapedValue) expression).getValue();
+
+    if (expression instanceof NumberExpression) {
+      NumberExpression number = (NumberExpression) expression;
+      Double value = number.getValueAsDouble();
+      if (value != null && value.compareTo(-0.0) == 0)
+        value = 0.0;
+      return "number:" + number.getSuffix() + ":" + value;
+    }
+
+    if (expression instanceof CssString) {
+      CssString string = (CssString) expression;
+      return "string:" + string.getQuoteType() + ":" + string.getValue();
+    }
+
+    if (expression instanceof ColorExpression)
+      return "color:" + ((ColorExpression) expression).getValue();
+
+    return null;
+  }
 
 }
@@ -24,7 +24,7 @@ public class StringFunctions implements FunctionsPackage {
   protected static final String E = "e";
   protected static final String FORMAT = "%";
 
-  private static Map<String, Function> FUNCTIONS = new HashMap<String, Function>();
+  static final Map<String, Function> FUNCTIONS = new HashMap<String, Function>();
   static {
     FUNCTIONS.put(ESCAPE, new Escape());
     FUNCTIONS.put(E, new E());
@@ -22,7 +22,7 @@ public class TypeFunctions implements FunctionsPackage {
   protected static final String ISPERCENTAGE = "ispercentage";
   protected static final String ISEM = "isem";
 
-  private static Map<String, Function> FUNCTIONS = new HashMap<String, Function>();
+  static final Map<String, Function> FUNCTIONS = new HashMap<String, Function>();
   static {
     FUNCTIONS.put(ISCOLOR, new IsColor());
     FUNCTIONS.put(ISKEYWORD, new IsKeyword());
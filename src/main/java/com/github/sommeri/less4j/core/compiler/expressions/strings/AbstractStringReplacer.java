@@ -14,24 +14,35 @@ public abstract class AbstractStringReplacer <ARG> {
   }
 
   public String replaceIn(String originalValue, ARG replacementArgument, HiddenTokenAwareTree technicalUnderlying) {
-    StringBuilder result = new StringBuilder();
-    List<MatchRange> matches = findMatches(originalValue);
-    int lastEnd = 0;
-    for (MatchRange matchRange : matches) {
+    StringTemplate template = getTemplate(originalValue);
+    if (!template.hasMatches())
+      return originalValue;
+
+    StringBuilder result = new StringBuilder(originalValue.length());
+    int count = template.getMatchesCount();
+    for (int i = 0; i < count; i++) {
       // add everything from the last end to match from
-      result.append(originalValue.substring(lastEnd, matchRange.getFrom()));
+      result.append(template.getLiteral(i));
       // replace match by value
-      result.append(replacementValue(replacementArgument, technicalUnderlying, matchRange));
-      // update last end
-      lastEnd = matchRange.getTo();
+      result.append(replacementValue(replacementArgument, technicalUnderlying, template.getMatch(i)));
     }
     // add everything from the last end to end of string
-    if (lastEnd<originalValue.length())
-      result.append(originalValue.substring(lastEnd));
+    result.append(template.getLiteral(count));
     
     return result.toString();
   }
 
+  /**
+   * Subclasses may remember templates of strings they see repeatedly.
+   */
+  StringTemplate getTemplate(String originalValue) {
+    return compile(originalValue);
+  }
+
+  final StringTemplate compile(String originalValue) {
+    return new StringTemplate(originalValue, findMatches(originalValue));
+  }
+
   private List<MatchRange> findMatches(String originalValue) {
     List<MatchRange> result = new ArrayList<MatchRange>();
     Matcher matcher = getPattern().matcher(originalValue);
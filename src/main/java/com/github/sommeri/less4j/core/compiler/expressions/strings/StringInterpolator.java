@@ -1,5 +1,10 @@
 package com.github.sommeri.less4j.core.compiler.expressions.strings;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.regex.Pattern;
 
 import com.github.sommeri.less4j.core.ast.CssString;
@@ -12,12 +17,48 @@ import com.github.sommeri.less4j.utils.InStringCssPrinter;
 public class StringInterpolator extends AbstractStringReplacer<ExpressionEvaluator> {
 
   private static final Pattern STR_INTERPOLATION = Pattern.compile("@\\{([^\\{\\}@])*\\}");
+  private static final String INTERPOLATION_START = "@{";
+  private static final StringTemplate NO_INTERPOLATION = new StringTemplate("", Collections.<MatchRange> emptyList());
+  // the same strings are interpolated on each evaluation of each scope and mixin expansion;
+  // interpolators are shared between compilations running in parallel, so templates are 
+  // split into stripes with separate locks
+  private static final int STRIPES = 16;
+  private static final List<Map<String, StringTemplate>> TEMPLATES = createStripes();
 
   @Override
   protected Pattern getPattern() {
     return STR_INTERPOLATION;
   }
 
+  private static List<Map<String, StringTemplate>> createStripes() {
+    List<Map<String, StringTemplate>> result = new ArrayList<Map<String, StringTemplate>>(STRIPES);
+    for (int i = 0; i < STRIPES; i++) {
+      result.add(new WeakHashMap<String, StringTemplate>());
+    }
+    return result;
+  }
+
+  @Override
+  StringTemplate getTemplate(String originalValue) {
+    if (!originalValue.contains(INTERPOLATION_START))
+      return NO_INTERPOLATION;
+
+    int hash = originalValue.hashCode();
+    Map<String, StringTemplate> stripe = TEMPLATES.get((hash ^ (hash >>> 16)) & (STRIPES - 1));
+    StringTemplate result;
+    synchronized (stripe) {
+      result = stripe.get(originalValue);
+    }
+    if (result == null) {
+      // compiled outside of the lock, templates compiled concurrently for the same string are equal
+      result = compile(originalValue);
+      synchronized (stripe) {
+        stripe.put(originalValue, result);
+      }
+    }
+    return result;
+  }
+
   @Override
   protected String extractMatchName(String group) {
     return "@"+group.substring(2, group.length()-1);
@@ -0,0 +1,52 @@
+package com.github.sommeri.less4j.core.compiler.expressions.strings;
+
+import java.util.List;
+
+/**
+ * Parsed string - matches and literal parts between them. Immutable, so it
+ * can be shared between threads. It does not reference the parsed string,
+ * so it can be used as a value in weak caches keyed by that string.
+ *
+ */
+class StringTemplate {
+
+  // literals[i] precedes matches[i], the last literal follows the last match
+  private final String[] literals;
+  private final MatchRange[] matches;
+
+  public StringTemplate(String originalValue, List<MatchRange> matches) {
+    this.matches = new MatchRange[matches.size()];
+    this.literals = new String[this.matches.length + 1];
+
+    int lastEnd = 0;
+    for (int i = 0; i < this.matches.length; i++) {
+      MatchRange match = matches.get(i);
+      literals[i] = part(originalValue, lastEnd, match.getFrom());
+      this.matches[i] = new MatchRange(match.getFrom(), match.getTo(), match.getName(), part(originalValue, match.getFrom(), match.getTo()));
+      lastEnd = match.getTo();
+    }
+    literals[this.matches.length] = part(originalValue, lastEnd, originalValue.length());
+  }
+
+  private static String part(String originalValue, int from, int to) {
+    // substring may return the original string itself
+    return new String(originalValue.substring(from, to));
+  }
+
+  public boolean hasMatches() {
+    return matches.length > 0;
+  }
+
+  public int getMatchesCount() {
+    return matches.length;
+  }
+
+  public MatchRange getMatch(int i) {
+    return matches[i];
+  }
+
+  public String getLiteral(int i) {
+    return literals[i];
+  }
+
+}
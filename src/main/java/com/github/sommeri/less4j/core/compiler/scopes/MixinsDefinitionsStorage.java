@@ -14,6 +14,9 @@ public class MixinsDefinitionsStorage implements Cloneable {
 
   private Map<String, List<FullMixinDefinition>> storage = new HashMap<String, List<FullMixinDefinition>>();
   private LinkedList<Placeholder> openPlaceholders = new LinkedList<Placeholder>();
+  // clones share the storage map and placeholders until one of them needs to modify them
+  private boolean storageShared = false;
+  private boolean placeholdersShared = false;
   
   public MixinsDefinitionsStorage() {
   }
@@ -73,7 +76,10 @@ public class MixinsDefinitionsStorage implements Cloneable {
   }
 
   private void updatePlaceholdersPositions(String name, FullMixinDefinition mixin) {
-    Iterator<Placeholder> iterator = openPlaceholders.descendingIterator();
+    if (openPlaceholders.isEmpty())
+      return ;
+    
+    Iterator<Placeholder> iterator = writablePlaceholders().descendingIterator();
     if (!iterator.hasNext())
       return ;
     
@@ -92,11 +98,27 @@ public class MixinsDefinitionsStorage implements Cloneable {
     List<FullMixinDefinition> list = storage.get(name);
     if (list == null) {
       list = new ArrayList<FullMixinDefinition>();
-      storage.put(name, list);
+      writableStorage().put(name, list);
     }
     return list;
   }
 
+  private Map<String, List<FullMixinDefinition>> writableStorage() {
+    if (storageShared) {
+      storage = new HashMap<String, List<FullMixinDefinition>>(storage);
+      storageShared = false;
+    }
+    return storage;
+  }
+
+  private LinkedList<Placeholder> writablePlaceholders() {
+    if (placeholdersShared) {
+      openPlaceholders = clonePlaceholders(openPlaceholders);
+      placeholdersShared = false;
+    }
+    return openPlaceholders;
+  }
+
   public boolean contains(ReusableStructureName name) {
     return contains(name.asString());
   }
@@ -116,7 +138,7 @@ public class MixinsDefinitionsStorage implements Cloneable {
     for (Entry<String, List<FullMixinDefinition>> entry : otherMixins.entrySet()) {
       String name = entry.getKey();
       List<FullMixinDefinition> values = entry.getValue();
-      placeholder.addToSelf(name, values);
+      placeholder.addToSelf(this, name, values);
     }
   }
 
@@ -130,32 +152,89 @@ public class MixinsDefinitionsStorage implements Cloneable {
   }
 
   public void createPlaceholder() {
-    openPlaceholders.add(new Placeholder(this));
+    writablePlaceholders().add(new Placeholder());
   }
 
   public void closePlaceholder() {
-    openPlaceholders.pop();
+    writablePlaceholders().pop();
   }
 
   public String placeholdersReport() {
     return "unused: " + openPlaceholders.size();
   }
 
+  /**
+   * Constant time clone. Both this storage and the clone copy shared data on
+   * their first modification.
+   */
   public MixinsDefinitionsStorage clone() {
+    MixinsDefinitionsStorage clone = shallowClone();
+    // the condition avoids writes into storages read by multiple threads
+    if (!storageShared || !placeholdersShared) {
+      storageShared = true;
+      placeholdersShared = true;
+    }
+    clone.storageShared = true;
+    clone.placeholdersShared = true;
+    return clone;
+  }
+
+  /**
+   * Copies all data right away. Unlike {@link #clone()}, it does not modify
+   * this storage.
+   */
+  public MixinsDefinitionsStorage copy() {
+    MixinsDefinitionsStorage clone = shallowClone();
+    clone.storage = new HashMap<String, List<FullMixinDefinition>>(storage);
+    clone.openPlaceholders = clonePlaceholders(openPlaceholders);
+    clone.storageShared = false;
+    clone.placeholdersShared = false;
+    return clone;
+  }
+
+  private MixinsDefinitionsStorage shallowClone() {
     try {
-      MixinsDefinitionsStorage clone = (MixinsDefinitionsStorage) super.clone();
-      clone.storage = new HashMap<String, List<FullMixinDefinition>>(storage);
-      clone.openPlaceholders = clonePlaceholders(openPlaceholders, clone);
-      return clone;
+      return (MixinsDefinitionsStorage) super.clone();
     } catch (CloneNotSupportedException e) {
       throw new IllegalStateException("Impossible state.");
     }
   }
 
-  protected LinkedList<Placeholder> clonePlaceholders(LinkedList<Placeholder> placeholders, MixinsDefinitionsStorage ownerClone) {
+  /**
+   * Replaces stored mixin definitions by definitions pointing to scopes from
+   * the map. Definitions with scopes not in the map are kept as they are.
+   * 
+   * @param remapped
+   *          already converted definitions, the same definition is converted
+   *          into the same instance in all storages
+   */
+  protected void remapScopes(Map<Scope, Scope> scopes, Map<FullMixinDefinition, FullMixinDefinition> remapped) {
+    for (Entry<String, List<FullMixinDefinition>> entry : writableStorage().entrySet()) {
+      List<FullMixinDefinition> list = new ArrayList<FullMixinDefinition>(entry.getValue().size());
+      for (FullMixinDefinition mixin : entry.getValue()) {
+        list.add(remap(mixin, scopes, remapped));
+      }
+      entry.setValue(list);
+    }
+    for (Placeholder placeholder : writablePlaceholders()) {
+      placeholder.remapScopes(scopes, remapped);
+    }
+  }
+
+  protected static FullMixinDefinition remap(FullMixinDefinition mixin, Map<Scope, Scope> scopes, Map<FullMixinDefinition, FullMixinDefinition> remapped) {
+    FullMixinDefinition result = remapped.get(mixin);
+    if (result == null) {
+      Scope scope = scopes.get(mixin.getScope());
+      result = scope == null ? mixin : new FullMixinDefinition(mixin.getMixin(), scope);
+      remapped.put(mixin, result);
+    }
+    return result;
+  }
+
+  protected LinkedList<Placeholder> clonePlaceholders(LinkedList<Placeholder> placeholders) {
     LinkedList<Placeholder> result = new LinkedList<Placeholder>();
     for (Placeholder placeholder : placeholders) {
-      result.add(placeholder.clone(ownerClone));
+      result.add(placeholder.clone());
     }
     return result;
   }
@@ -171,11 +250,9 @@ public class MixinsDefinitionsStorage implements Cloneable {
 
 class Placeholder implements Cloneable {
 
-  private MixinsDefinitionsStorage owner;
   private Map<String, FullMixinDefinition> nextMixin = new HashMap<String, FullMixinDefinition>();
 
-  protected Placeholder(MixinsDefinitionsStorage owner) {
-    this.owner = owner;
+  protected Placeholder() {
   }
 
   public boolean knowPosition(String name) {
@@ -186,7 +263,7 @@ class Placeholder implements Cloneable {
     nextMixin.put(name, mixin);
   }
 
-  public void addToSelf(String name, List<FullMixinDefinition> values) {
+  public void addToSelf(MixinsDefinitionsStorage owner, String name, List<FullMixinDefinition> values) {
     List<FullMixinDefinition> storedList = owner.getStoredList(name);
     int position = position(name, storedList);
     
@@ -205,6 +282,12 @@ class Placeholder implements Cloneable {
     return storedList.indexOf(mixin);
   }
 
+  protected void remapScopes(Map<Scope, Scope> scopes, Map<FullMixinDefinition, FullMixinDefinition> remapped) {
+    for (Entry<String, FullMixinDefinition> entry : nextMixin.entrySet()) {
+      entry.setValue(MixinsDefinitionsStorage.remap(entry.getValue(), scopes, remapped));
+    }
+  }
+
   @Override
   protected Placeholder clone() {
     try {
@@ -216,10 +299,4 @@ class Placeholder implements Cloneable {
     }
   }
 
-  protected Placeholder clone(MixinsDefinitionsStorage owner) {
-    Placeholder clone = clone();
-    clone.owner = owner;
-    return clone;
-  }
-
 }
@@ -2,8 +2,11 @@ package com.github.sommeri.less4j.core.compiler.scopes;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Stack;
 
 import com.github.sommeri.less4j.core.ast.ASTCssNode;
@@ -34,12 +37,21 @@ public class Scope {
   private List<Scope> childs = new ArrayList<Scope>();
   private List<String> names; 
 
+  // caches are valid until some scope of the same tree changes
+  private TreeState treeState;
+  private long cachesVersion;
+  // variables found through parents chain
+  private Map<String, Expression> resolvedVariables;
+  // evaluated values of variables referenced from this scope
+  private Map<String, Expression> evaluatedVariables;
+
 
   protected Scope(String type, ASTCssNode owner, List<String> names, Scope parent) {
     super();
     this.names = names;
     this.owner = owner;
     this.type = type;
+    this.treeState = parent != null ? parent.treeState : new TreeState();
     setParent(parent);
   }
 
@@ -99,30 +111,37 @@ public class Scope {
   }
 
   public void registerVariable(AbstractVariableDeclaration declaration) {
+    variablesModified();
     getLocalVariables().store(declaration);
   }
 
   public void registerVariable(AbstractVariableDeclaration node, Expression replacementValue) {
+    variablesModified();
     getLocalVariables().store(node, replacementValue);
   }
 
   public void registerVariableIfNotPresent(String name, Expression replacementValue) {
+    variablesModified();
     getLocalVariables().storeIfNotPresent(name, replacementValue);
   }
 
   public void registerVariable(String name, Expression replacementValue) {
+    variablesModified();
     getLocalVariables().store(name, replacementValue);
   }
 
   public void fillByFilteredVariables(ExpressionFilter filter, Scope source) {
+    variablesModified();
     getLocalVariables().fillByFilteredVariables(filter, source.getLocalVariables());
   }
 
   public void addAllMixins(List<FullMixinDefinition> mixins) {
+    mixinsModified();
     getLocalMixins().storeAll(mixins);
   }
 
   public void add(Scope otherSope) {
+    variablesModified();
     getLocalMixins().storeAll(otherSope.getLocalMixins());
     getLocalVariables().storeAll(otherSope.getLocalVariables());
   }
@@ -131,29 +150,112 @@ public class Scope {
     return getValue(variable.getName());
   }
 
+  /**
+   * Resolved values are remembered, so repeated lookups do not walk the
+   * parents chain again. Any modification of variables, placeholders, local 
+   * data snapshots or parents anywhere in the scope tree invalidates all 
+   * remembered values.
+   * 
+   */
   public Expression getValue(String name) {
-    Expression value = getLocalVariables().getValue(name);
+    validateCaches();
+    if (resolvedVariables == null)
+      resolvedVariables = new HashMap<String, Expression>();
+
+    Expression value = resolvedVariables.get(name);
+    if (value != null)
+      return value;
+
+    value = getLocalVariables().getValue(name);
     if (value == null && hasParent())
-      return getParent().getValue(name);
+      value = getParent().getValue(name);
 
+    if (value != null)
+      resolvedVariables.put(name, value);
     return value;
   }
 
+  /**
+   * @return value of the variable as evaluated in this scope or <code>null</code> 
+   * if it was not evaluated since last modification of the scope tree. 
+   */
+  public Expression getEvaluatedValue(String name) {
+    validateCaches();
+    Expression result = evaluatedVariables == null ? null : evaluatedVariables.get(name);
+    if (result == null)
+      treeState.evaluationMisses++;
+    else
+      treeState.evaluationHits++;
+    return result;
+  }
+
+  public void storeEvaluatedValue(String name, Expression value) {
+    validateCaches();
+    if (evaluatedVariables == null)
+      evaluatedVariables = new HashMap<String, Expression>();
+    evaluatedVariables.put(name, value);
+  }
+
+  /**
+   * @return how many times was {@link #getEvaluatedValue(String)} able to
+   *         return remembered value, counted over the whole scope tree.
+   */
+  public long getEvaluationHits() {
+    return treeState.evaluationHits;
+  }
+
+  /**
+   * @return how many times {@link #getEvaluatedValue(String)} had nothing to
+   *         return, counted over the whole scope tree.
+   */
+  public long getEvaluationMisses() {
+    return treeState.evaluationMisses;
+  }
+
+  private void validateCaches() {
+    long version = treeState.modifications;
+    if (cachesVersion == version)
+      return;
+
+    cachesVersion = version;
+    if (resolvedVariables != null)
+      resolvedVariables.clear();
+    if (evaluatedVariables != null)
+      evaluatedVariables.clear();
+  }
+
+  private void variablesModified() {
+    localData.modifications++;
+    treeChanged();
+  }
+
+  private void mixinsModified() {
+    localData.modifications++;
+  }
+
+  private void treeChanged() {
+    treeState.modifications++;
+  }
+
   public void registerMixin(ReusableStructure mixin, Scope mixinsBodyScope) {
+    mixinsModified();
     getLocalMixins().store(new FullMixinDefinition(mixin, mixinsBodyScope));
   }
 
   public void createPlaceholder() {
+    mixinsModified();
     getLocalVariables().createPlaceholder();
     getLocalMixins().createPlaceholder();
   }
 
   public void addToPlaceholder(Scope otherScope) {
+    variablesModified();
     getLocalVariables().addToPlaceholder(otherScope.getLocalVariables());
     getLocalMixins().addToPlaceholder(otherScope.getLocalMixins());
   }
 
   public void closePlaceholder() {
+    variablesModified();
     getLocalVariables().closePlaceholder();
     getLocalMixins().closePlaceholder();
   }
@@ -242,33 +344,45 @@ public class Scope {
     return copyWithChildChain(null);
   }
 
+  /**
+   * Copies this scope and all its descendants that are still present in the 
+   * tree. Removed subtrees belong to mixin definitions and those keep their 
+   * original scopes, so their copies would never be used. 
+   */
   public Scope copyWithChildChain(Scope parent) {
     Scope result = new Scope(type, owner, new ArrayList<String>(getNames()), parent);
+    result.treeState = treeState;
     result.localData = localData;
     result.presentInTree = presentInTree;
     for (Scope kid : getChilds()) {
-      kid.copyWithChildChain(result);
+      if (kid.isPresentInTree())
+        kid.copyWithChildChain(result);
     }
 
     return result;
   }
 
+  /**
+   * Copies only the path from this scope up to the root. Siblings are not 
+   * reachable from the copy, so they are left out and the copy takes time 
+   * proportional to the depth of the scope rather than to the size of the tree.
+   */
   public Scope copyWithParentsChain() {
     Scope parent = null;
     if (hasParent()) {
       parent = getParent().copyWithParentsChain();
-      for (Scope kid : getParent().getChilds())
-        if (kid != this) {
-          kid.copyWithChildChain(parent);
-        }
     }
     Scope result = new Scope(type, owner, new ArrayList<String>(getNames()), parent);
+    result.treeState = treeState;
     result.localData = localData;
     result.presentInTree = presentInTree;
     return result;
   }
 
-  public Scope copyWholeTree() {
+  /**
+   * Copies the path to the root and the subtree of this scope. 
+   */
+  public Scope copyWithParentsAndChildChain() {
     Scope parentalTree = copyWithParentsChain();
     Scope parentalTreeConnector = parentalTree.getParent();
     parentalTree.setParent(null);
@@ -276,6 +390,45 @@ public class Scope {
     return copyWithchildTree;
   }
 
+  /**
+   * Copies the path to the root and the subtree of this scope and hangs the 
+   * copied root under the path from <code>newParent</code> to its root. Both 
+   * originals remain unchanged.
+   */
+  public Scope copyJoinedTo(Scope newParent) {
+    Scope result = copyWithParentsAndChildChain();
+    result.getRootScope().setParent(newParent.copyWithParentsChain());
+    return result;
+  }
+
+  /**
+   * Copies the whole subtree including local data. Unlike other copy methods, 
+   * the copy does not share local data with the original and mixin definitions
+   * point to copied scopes. Original can be safely used in other threads 
+   * while the copy is being modified. 
+   */
+  public Scope copyTreeWithOwnData(ASTCssNode rootOwner) {
+    Map<Scope, Scope> copies = new IdentityHashMap<Scope, Scope>();
+    Scope result = copyTreeWithOwnData(rootOwner, null, copies);
+
+    Map<FullMixinDefinition, FullMixinDefinition> remappedMixins = new IdentityHashMap<FullMixinDefinition, FullMixinDefinition>();
+    for (Scope copy : copies.values()) {
+      copy.getLocalMixins().remapScopes(copies, remappedMixins);
+    }
+    return result;
+  }
+
+  private Scope copyTreeWithOwnData(ASTCssNode owner, Scope parent, Map<Scope, Scope> copies) {
+    Scope result = new Scope(type, owner, new ArrayList<String>(getNames()), parent);
+    result.localData = localData.copy();
+    result.presentInTree = presentInTree;
+    copies.put(this, result);
+    for (Scope kid : getChilds()) {
+      kid.copyTreeWithOwnData(kid.owner, result, copies);
+    }
+    return result;
+  }
+
   public void insertAsParent(Scope parent) {
     Scope originalParent = getParent();
     parent.setParent(originalParent);
@@ -289,8 +442,19 @@ public class Scope {
 
     this.parent = parent;
 
-    if (parent != null)
+    if (parent != null) {
       parent.addChild(this);
+      if (parent.treeState != treeState)
+        shareTreeState(parent.treeState);
+    }
+    treeChanged();
+  }
+
+  private void shareTreeState(TreeState shared) {
+    treeState = shared;
+    for (Scope kid : getChilds()) {
+      kid.shareTreeState(shared);
+    }
   }
 
   public void removedFromTree() {
@@ -344,6 +508,7 @@ public class Scope {
    * Do not call this method directly. Use {@link InScopeSnapshotRunner} instead.
    */
   protected void createLocalDataSnapshot() {
+    treeChanged();
     localDataSnapshots.push(localData);
     localData = localData.clone();
   }
@@ -352,6 +517,7 @@ public class Scope {
    * Do not call this method directly. Use {@link InScopeSnapshotRunner} instead.
    */
   protected void discardLastLocalDataSnapshot() {
+    treeChanged();
     localData = localDataSnapshots.pop();
   }
 
@@ -359,6 +525,8 @@ public class Scope {
 
     private VariablesDeclarationsStorage variables = new VariablesDeclarationsStorage();
     private MixinsDefinitionsStorage mixins = new MixinsDefinitionsStorage();
+    // clones start with the same number, but are distinguished by identity
+    private long modifications;
 
     @Override
     protected LocalData clone() {
@@ -373,6 +541,17 @@ public class Scope {
       }
     }
 
+    /**
+     * Unlike {@link #clone()}, copies all data right away and does not modify
+     * the original.
+     */
+    protected LocalData copy() {
+      LocalData copy = new LocalData();
+      copy.variables = variables.copy();
+      copy.mixins = mixins.copy();
+      return copy;
+    }
+
     @Override
     public String toString() {
       StringBuilder result = new StringBuilder(getClass().getSimpleName()).append("\n");
@@ -382,6 +561,31 @@ public class Scope {
     }
   }
 
+  /**
+   * Counts changes in scopes that may see each other and use of their caches. 
+   * Scopes of the same tree and their copies share one instance.
+   */
+  private static class TreeState {
+    private long modifications;
+    private long evaluationHits;
+    private long evaluationMisses;
+  }
+
+  /**
+   * Captures local data of this scope and all its parents. See {@link ScopeDataState}.
+   */
+  public ScopeDataState captureDataState() {
+    return new ScopeDataState(this);
+  }
+
+  LocalData getLocalData() {
+    return localData;
+  }
+
+  long getLocalDataModifications() {
+    return localData.modifications;
+  }
+
   private MixinsDefinitionsStorage getLocalMixins() {
     return localData.mixins;
   }
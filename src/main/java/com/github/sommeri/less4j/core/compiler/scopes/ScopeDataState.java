@@ -0,0 +1,40 @@
+package com.github.sommeri.less4j.core.compiler.scopes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Local data of a scope and all its parents as they were at the moment of
+ * capture. The state is current as long as the scopes use the same local data
+ * (no snapshot was created nor discarded since) and nothing was stored into
+ * them.
+ *
+ */
+public class ScopeDataState {
+
+  private final List<Object> localData = new ArrayList<Object>();
+  private final List<Long> modifications = new ArrayList<Long>();
+
+  protected ScopeDataState(Scope scope) {
+    while (scope != null) {
+      localData.add(scope.getLocalData());
+      modifications.add(scope.getLocalDataModifications());
+      scope = scope.getParent();
+    }
+  }
+
+  public boolean isCurrent(Scope scope) {
+    int i = 0;
+    while (scope != null) {
+      if (i >= localData.size())
+        return false;
+      if (localData.get(i) != scope.getLocalData() || modifications.get(i) != scope.getLocalDataModifications())
+        return false;
+
+      scope = scope.getParent();
+      i++;
+    }
+    return i == localData.size();
+  }
+
+}
@@ -9,6 +9,8 @@ public abstract class StorageWithPlaceholders<T> implements Cloneable {
   private int registeredPlaceholders = 0;
   private int usedPlaceholders = 0;
   private Map<String, Integer> placeholdersWhenModified = new HashMap<String, Integer>();
+  // clones share the map until one of them needs to modify it
+  private boolean placeholdersShared = false;
 
   public void createPlaceholder() {
     registeredPlaceholders += 1;
@@ -28,15 +30,23 @@ public abstract class StorageWithPlaceholders<T> implements Cloneable {
   }
 
   public void store(String name, T value) {
-    placeholdersWhenModified.put(name, registeredPlaceholders);
+    writablePlaceholders().put(name, registeredPlaceholders);
     doStore(name, value);
   }
 
   public void store(String name, List<T> value) {
-    placeholdersWhenModified.put(name, registeredPlaceholders);
+    writablePlaceholders().put(name, registeredPlaceholders);
     doStore(name, value);
   }
 
+  private Map<String, Integer> writablePlaceholders() {
+    if (placeholdersShared) {
+      placeholdersWhenModified = new HashMap<String, Integer>(placeholdersWhenModified);
+      placeholdersShared = false;
+    }
+    return placeholdersWhenModified;
+  }
+
   protected abstract void doStore(String name, T value);
 
   protected abstract void doStore(String name, List<T> value);
@@ -49,11 +59,34 @@ public abstract class StorageWithPlaceholders<T> implements Cloneable {
     return "registered: " + registeredPlaceholders + " used: " + usedPlaceholders;
   }
 
+  /**
+   * Constant time clone. Both this storage and the clone copy shared data on
+   * their first modification.
+   */
   public StorageWithPlaceholders<T> clone() {
+    StorageWithPlaceholders<T> clone = shallowClone();
+    // the condition avoids writes into storages read by multiple threads
+    if (!placeholdersShared)
+      placeholdersShared = true;
+    clone.placeholdersShared = true;
+    return clone;
+  }
+
+  /**
+   * Copies all data right away. Unlike {@link #clone()}, it does not modify
+   * this storage.
+   */
+  public StorageWithPlaceholders<T> copy() {
+    StorageWithPlaceholders<T> clone = shallowClone();
+    clone.placeholdersWhenModified = new HashMap<String, Integer>(placeholdersWhenModified);
+    clone.placeholdersShared = false;
+    return clone;
+  }
+
+  private StorageWithPlaceholders<T> shallowClone() {
     try {
       @SuppressWarnings("unchecked")
       StorageWithPlaceholders<T> clone = (StorageWithPlaceholders<T>) super.clone();
-      clone.placeholdersWhenModified = new HashMap<String, Integer>(placeholdersWhenModified);
       return clone;
     } catch (CloneNotSupportedException e) {
       throw new IllegalStateException("Impossible state.");
@@ -12,6 +12,8 @@ import com.github.sommeri.less4j.core.compiler.expressions.ExpressionFilter;
 public class VariablesDeclarationsStorage extends StorageWithPlaceholders<Expression> {
 
   private Map<String, Expression> variables = new HashMap<String, Expression>();
+  // clones share the map until one of them needs to modify it
+  private boolean variablesShared = false;
 
   public VariablesDeclarationsStorage() {
   }
@@ -36,7 +38,15 @@ public class VariablesDeclarationsStorage extends StorageWithPlaceholders<Expres
 
   @Override
   protected void doStore(String name, Expression replacementValue) {
-    variables.put(name, replacementValue);
+    writableVariables().put(name, replacementValue);
+  }
+
+  private Map<String, Expression> writableVariables() {
+    if (variablesShared) {
+      variables = new HashMap<String, Expression>(variables);
+      variablesShared = false;
+    }
+    return variables;
   }
 
   @Override
@@ -78,7 +88,16 @@ public class VariablesDeclarationsStorage extends StorageWithPlaceholders<Expres
 
   public VariablesDeclarationsStorage clone() {
     VariablesDeclarationsStorage clone = (VariablesDeclarationsStorage) super.clone();
+    if (!variablesShared)
+      variablesShared = true;
+    clone.variablesShared = true;
+    return clone;
+  }
+
+  public VariablesDeclarationsStorage copy() {
+    VariablesDeclarationsStorage clone = (VariablesDeclarationsStorage) super.copy();
     clone.variables = new HashMap<String, Expression>(variables);
+    clone.variablesShared = false;
     return clone;
   }
 
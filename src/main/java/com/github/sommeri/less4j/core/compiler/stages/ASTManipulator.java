@@ -1,11 +1,7 @@
 package com.github.sommeri.less4j.core.compiler.stages;
 
-import java.beans.PropertyDescriptor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 
-import org.apache.commons.beanutils.PropertyUtils;
-
 import com.github.sommeri.less4j.core.ast.ASTCssNode;
 import com.github.sommeri.less4j.core.ast.Body;
 import com.github.sommeri.less4j.core.problems.BugHappened;
@@ -17,19 +13,9 @@ public class ASTManipulator {
       return ;
     
     ASTCssNode parent = oldChild.getParent();
-    PropertyDescriptor[] propertyDescriptors = PropertyUtils.getPropertyDescriptors(parent.getClass());
-    for (PropertyDescriptor descriptor : propertyDescriptors) {
-      Class<?> propertyType = descriptor.getPropertyType();
-      if (propertyType!=null && propertyType.isInstance(newChild)) {
-        Object value = getPropertyValue(parent, descriptor);
-        if (value == oldChild) {
-          setPropertyValue(newChild, parent, "parent");
-          setPropertyValue(oldChild, null, "parent");
-          setPropertyValue(parent, newChild, descriptor);
-          //todo maybe set parents to childs?
-          return;
-        }
-      }
+    if (parent.replaceChild(oldChild, newChild)) {
+      newChild.setParent(parent);
+      oldChild.setParent(null);
     }
   }
 
@@ -88,44 +74,6 @@ public class ASTManipulator {
     }
   }
 
-  private void setPropertyValue(ASTCssNode parent, ASTCssNode value, String name) {
-    try {
-      PropertyUtils.setProperty(parent, name, value);
-    } catch (IllegalAccessException e) {
-      throw new BugHappened(e, value);
-    } catch (InvocationTargetException e) {
-      throw new BugHappened(e, value);
-    } catch (NoSuchMethodException e) {
-      throw new BugHappened(e, value);
-    }
-  }
-
-  private void setPropertyValue(ASTCssNode parent, ASTCssNode value, PropertyDescriptor descriptor) {
-    try {
-      PropertyUtils.setProperty(parent, descriptor.getName(), value);
-    } catch (IllegalAccessException e) {
-      throw new BugHappened(e, value);
-    } catch (InvocationTargetException e) {
-      throw new BugHappened(e, value);
-    } catch (NoSuchMethodException e) {
-      throw new BugHappened(e, value);
-    }
-
-  }
-
-  private Object getPropertyValue(ASTCssNode object, PropertyDescriptor descriptor) {
-    try {
-      Object result = PropertyUtils.getProperty(object, descriptor.getName());
-      return result;
-    } catch (IllegalAccessException e) {
-      throw new BugHappened(e, object);
-    } catch (InvocationTargetException e) {
-      throw new BugHappened(e, object);
-    } catch (NoSuchMethodException e) {
-      throw new BugHappened(e, object);
-    }
-  }
-
   public void removeFromClosestBody(ASTCssNode node) {
     ASTCssNode removeNode = node;
     while (removeNode!=null && !(removeNode.getParent() instanceof Body)) {
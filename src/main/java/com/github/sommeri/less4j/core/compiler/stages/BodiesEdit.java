@@ -0,0 +1,65 @@
+package com.github.sommeri.less4j.core.compiler.stages;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.sommeri.less4j.core.ast.ASTCssNode;
+import com.github.sommeri.less4j.core.ast.Body;
+import com.github.sommeri.less4j.core.ast.BodyMembersEdit;
+import com.github.sommeri.less4j.core.problems.BugHappened;
+
+/**
+ * Batched version of {@link ASTManipulator} body operations. Changes are
+ * grouped by the body they belong to and each body is rebuilt only once in
+ * {@link #apply()}.
+ *
+ */
+public class BodiesEdit {
+
+  private final Map<Body, BodyMembersEdit> edits = new IdentityHashMap<Body, BodyMembersEdit>();
+  // bodies in order of first change, so that results do not depend on hashes
+  private final List<BodyMembersEdit> ordered = new ArrayList<BodyMembersEdit>();
+
+  public void remove(ASTCssNode node) {
+    editOf(node).remove(node);
+  }
+
+  public void replace(ASTCssNode oldNode, ASTCssNode newNode) {
+    editOf(oldNode).replace(oldNode, newNode);
+  }
+
+  public void replace(ASTCssNode oldNode, List<? extends ASTCssNode> newNodes) {
+    editOf(oldNode).replace(oldNode, newNodes);
+  }
+
+  public void addAfter(ASTCssNode afterNode, List<? extends ASTCssNode> newNodes) {
+    editOf(afterNode).addAfter(afterNode, newNodes);
+  }
+
+  public void apply() {
+    for (BodyMembersEdit edit : ordered) {
+      edit.apply();
+    }
+    edits.clear();
+    ordered.clear();
+  }
+
+  private BodyMembersEdit editOf(ASTCssNode node) {
+    ASTCssNode parent = node.getParent();
+    if (!(parent instanceof Body)) {
+      throw new BugHappened("Parent is not a body instance. " + parent, parent);
+    }
+
+    Body pBody = (Body) parent;
+    BodyMembersEdit result = edits.get(pBody);
+    if (result == null) {
+      result = pBody.editMembers();
+      edits.put(pBody, result);
+      ordered.add(result);
+    }
+    return result;
+  }
+
+}
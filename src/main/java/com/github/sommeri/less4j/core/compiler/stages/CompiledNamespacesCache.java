@@ -0,0 +1,62 @@
+package com.github.sommeri.less4j.core.compiler.stages;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.github.sommeri.less4j.core.compiler.scopes.Scope;
+import com.github.sommeri.less4j.core.compiler.scopes.ScopeDataState;
+
+/**
+ * Remembers scopes of namespaces with all references inside them solved. 
+ * Compiled namespace is valid only as long as the namespace scope and all 
+ * its parents keep the data they had when it was compiled.
+ *
+ */
+class CompiledNamespacesCache {
+
+  // namespace body scope -> compiled namespace
+  private final Map<Scope, CompiledNamespace> namespaces = new IdentityHashMap<Scope, CompiledNamespace>();
+  private int hits = 0;
+  private int misses = 0;
+
+  /**
+   * @return copy of namespace scope as it was after compilation or
+   *         <code>null</code> if the namespace was not compiled with current
+   *         data.
+   */
+  public Scope get(Scope namespaceScope) {
+    CompiledNamespace compiled = namespaces.get(namespaceScope);
+    if (compiled == null || !compiled.input.isCurrent(namespaceScope)) {
+      misses++;
+      return null;
+    }
+
+    hits++;
+    return compiled.scope;
+  }
+
+  public void put(Scope namespaceScope, ScopeDataState input, Scope compiledScope) {
+    namespaces.put(namespaceScope, new CompiledNamespace(input, compiledScope));
+  }
+
+  public int getHits() {
+    return hits;
+  }
+
+  public int getMisses() {
+    return misses;
+  }
+
+  private static class CompiledNamespace {
+
+    private final ScopeDataState input;
+    private final Scope scope;
+
+    public CompiledNamespace(ScopeDataState input, Scope scope) {
+      this.input = input;
+      this.scope = scope;
+    }
+
+  }
+
+}
@@ -0,0 +1,182 @@
+package com.github.sommeri.less4j.core.compiler.stages;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.sommeri.less4j.core.ast.ASTCssNode;
+import com.github.sommeri.less4j.core.ast.AbstractVariableDeclaration;
+import com.github.sommeri.less4j.core.ast.ComposedExpression;
+import com.github.sommeri.less4j.core.ast.CssString;
+import com.github.sommeri.less4j.core.ast.Declaration;
+import com.github.sommeri.less4j.core.ast.EscapedValue;
+import com.github.sommeri.less4j.core.ast.Expression;
+import com.github.sommeri.less4j.core.ast.ExpressionOperator.Operator;
+import com.github.sommeri.less4j.core.compiler.expressions.ExpressionEvaluator;
+import com.github.sommeri.less4j.core.problems.ProblemsHandler;
+
+/**
+ * Replaces subexpressions built only from literals by their values, so they
+ * are not evaluated again in every scope and mixin expansion. Runs on freshly
+ * parsed style sheets.
+ *
+ * Only values that are always fully evaluated are folded: declarations except
+ * font declarations, variable values and default values of mixin arguments.
+ * Guards, patterns, mixin reference arguments and media expressions are left
+ * as they are. Folded value is the same value later evaluation would
+ * produce, including its underlying structure, so errors and source maps
+ * point to the same place.
+ *
+ */
+public class ConstantsFolder {
+
+  private static final String INTERPOLATION_START = "@{";
+
+  private final ASTManipulator manipulator = new ASTManipulator();
+  private int folded = 0;
+
+  public void foldConstants(ASTCssNode node) {
+    switch (node.getType()) {
+    case DECLARATION:
+      Declaration declaration = (Declaration) node;
+      if (canFold(declaration) && declaration.getExpression() != null)
+        foldIn(declaration.getExpression());
+      break;
+
+    case VARIABLE_DECLARATION:
+    case ARGUMENT_DECLARATION:
+      AbstractVariableDeclaration variableDeclaration = (AbstractVariableDeclaration) node;
+      if (variableDeclaration.getValue() != null)
+        foldIn(variableDeclaration.getValue());
+      break;
+
+    case MIXIN_REFERENCE:
+    case GUARD:
+    case FIXED_MEDIA_EXPRESSION:
+      break;
+
+    default:
+      List<ASTCssNode> childs = new ArrayList<ASTCssNode>(node.getChilds());
+      for (ASTCssNode kid : childs) {
+        foldConstants(kid);
+      }
+    }
+  }
+
+  /**
+   * @return number of folded subexpressions
+   */
+  public int getFolded() {
+    return folded;
+  }
+
+  private boolean canFold(Declaration declaration) {
+    String name = declaration.getName();
+    // font shorthand keeps its slashes and interpolated name may turn into font
+    return name != null && !declaration.isFontDeclaration() && !name.contains(INTERPOLATION_START);
+  }
+
+  private void foldIn(Expression expression) {
+    if (isOperation(expression) && isConstant(expression) && fold(expression))
+      return;
+
+    List<ASTCssNode> childs = new ArrayList<ASTCssNode>(expression.getChilds());
+    for (ASTCssNode kid : childs) {
+      if (kid instanceof Expression)
+        foldIn((Expression) kid);
+    }
+  }
+
+  private boolean fold(Expression expression) {
+    // problems would be reported in a wrong context, such expressions are evaluated later
+    ProblemsHandler ignoredProblems = new ProblemsHandler();
+    ExpressionEvaluator evaluator = new ExpressionEvaluator(ignoredProblems);
+    Expression value;
+    try {
+      // evaluation may reparent nodes of evaluated expression, so the original must stay untouched
+      value = evaluator.evaluate(expression.clone());
+    } catch (RuntimeException ex) {
+      // the expression may never be used, failure belongs to the real evaluation
+      return false;
+    }
+    if (ignoredProblems.hasErrors() || ignoredProblems.hasWarnings() || !isLiteral(value))
+      return false;
+
+    // value keeps the same underlying structure later evaluation would give it
+    Expression replacement = value.clone();
+    ASTCssNode parent = expression.getParent();
+    manipulator.replace(expression, replacement);
+    if (replacement.getParent() != parent)
+      return false;
+
+    folded++;
+    return true;
+  }
+
+  private boolean isLiteral(Expression value) {
+    switch (value.getType()) {
+    case NUMBER:
+    case COLOR_EXPRESSION:
+    case STRING_EXPRESSION:
+      return true;
+
+    default:
+      return false;
+    }
+  }
+
+  private boolean isOperation(Expression expression) {
+    switch (expression.getType()) {
+    case FUNCTION:
+    case PARENTHESES_EXPRESSION:
+    case SIGNED_EXPRESSION:
+      return true;
+
+    case COMPOSED_EXPRESSION:
+      Operator operator = ((ComposedExpression) expression).getOperator().getOperator();
+      return operator != Operator.COMMA && operator != Operator.EMPTY_OPERATOR;
+
+    default:
+      return false;
+    }
+  }
+
+  private boolean isConstant(ASTCssNode node) {
+    switch (node.getType()) {
+    case STRING_EXPRESSION:
+      if (isInterpolated(((CssString) node).getValue()))
+        return false;
+      break;
+
+    case ESCAPED_VALUE:
+      if (isInterpolated(((EscapedValue) node).getValue()))
+        return false;
+      break;
+
+    case NUMBER:
+    case COLOR_EXPRESSION:
+    case IDENTIFIER_EXPRESSION:
+    case EMPTY_EXPRESSION:
+    case FUNCTION:
+    case PARENTHESES_EXPRESSION:
+    case SIGNED_EXPRESSION:
+    case NAMED_EXPRESSION:
+    case COMPOSED_EXPRESSION:
+    case EXPRESSION_OPERATOR:
+      break;
+
+    default:
+      return false;
+    }
+
+    for (ASTCssNode kid : node.getChilds()) {
+      if (!isConstant(kid))
+        return false;
+    }
+    return true;
+  }
+
+  private boolean isInterpolated(String value) {
+    return value != null && value.contains(INTERPOLATION_START);
+  }
+
+}
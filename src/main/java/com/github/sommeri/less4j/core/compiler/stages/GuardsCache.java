@@ -0,0 +1,98 @@
+package com.github.sommeri.less4j.core.compiler.stages;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.github.sommeri.less4j.core.ast.Guard;
+import com.github.sommeri.less4j.core.ast.ReusableStructure;
+import com.github.sommeri.less4j.core.compiler.expressions.ExpressionEvaluator;
+import com.github.sommeri.less4j.core.compiler.scopes.Scope;
+import com.github.sommeri.less4j.core.problems.ProblemsHandler;
+
+/**
+ * Remembers outcomes of mixin guards. Guards read variables only by name, so
+ * the outcome depends only on values of referenced variables as seen from the
+ * mixin working scope. Guards that interpolate variables into strings or use
+ * indirect variables are always evaluated.
+ *
+ */
+class GuardsCache {
+
+  private final ProblemsHandler problemsHandler;
+  private final VariablesFingerprint fingerprints = new VariablesFingerprint();
+  // mixin -> variables referenced by guards or null if guards can not be cached
+  private final Map<ReusableStructure, Set<String>> referencedVariables = new IdentityHashMap<ReusableStructure, Set<String>>();
+  private final Map<ReusableStructure, Map<String, Boolean>> outcomes = new IdentityHashMap<ReusableStructure, Map<String, Boolean>>();
+  private int hits = 0;
+  private int misses = 0;
+  private int uncacheable = 0;
+
+  public GuardsCache(ProblemsHandler problemsHandler) {
+    this.problemsHandler = problemsHandler;
+  }
+
+  public boolean guardsSatisfied(ReusableStructure mixin, Scope workingScope, ExpressionEvaluator evaluator) {
+    List<Guard> guards = mixin.getGuards();
+    if (guards == null || guards.isEmpty())
+      return true;
+
+    Set<String> variables = getReferencedVariables(mixin);
+    String fingerprint = variables == null ? null : fingerprints.create(variables, mixin, workingScope);
+    if (fingerprint == null) {
+      uncacheable++;
+      return evaluator.guardsSatisfied(mixin);
+    }
+
+    Map<String, Boolean> known = outcomes.get(mixin);
+    if (known == null) {
+      known = new HashMap<String, Boolean>();
+      outcomes.put(mixin, known);
+    }
+    Boolean result = known.get(fingerprint);
+    if (result != null) {
+      hits++;
+      return result;
+    }
+
+    misses++;
+    int problemsBefore = problemsHandler.getProblemsCount();
+    result = evaluator.guardsSatisfied(mixin);
+    // problems must be reported again on each evaluation, so such outcomes are not remembered
+    if (problemsHandler.getProblemsCount() == problemsBefore)
+      known.put(fingerprint, result);
+
+    return result;
+  }
+
+  public int getHits() {
+    return hits;
+  }
+
+  public int getMisses() {
+    return misses;
+  }
+
+  public int getUncacheable() {
+    return uncacheable;
+  }
+
+  private Set<String> getReferencedVariables(ReusableStructure mixin) {
+    if (referencedVariables.containsKey(mixin))
+      return referencedVariables.get(mixin);
+
+    Set<String> result = new TreeSet<String>();
+    for (Guard guard : mixin.getGuards()) {
+      if (!fingerprints.collectVariables(guard, false, result)) {
+        result = null;
+        break;
+      }
+    }
+    referencedVariables.put(mixin, result);
+    return result;
+  }
+
+}
@@ -18,15 +18,25 @@ import com.github.sommeri.less4j.core.compiler.scopes.Scope;
  */
 //Variables, mixins and namespaces are valid within the whole scope, even before they have been defined. 
 public class InitialScopeExtractor {
-  private ASTManipulator manipulator = new ASTManipulator();
 
   private Scope currentScope;
+  private Scope rootScope;
 
   public InitialScopeExtractor() {
   }
 
   public Scope extractScope(ASTCssNode node) {
+    return extractScope(node, null);
+  }
+
+  /**
+   * @param rootScope
+   *          scope to be filled by top level variables and mixins. If
+   *          <code>null</code>, new default scope is created.
+   */
+  public Scope extractScope(ASTCssNode node, Scope rootScope) {
     currentScope = null;
+    this.rootScope = rootScope;
 
     Scope result = buildScope(node);
     return result;
@@ -39,13 +49,15 @@ public class InitialScopeExtractor {
 
     fillScopeNames(node);
 
+    // removed all at once, but before the parent converts this node into a mixin
+    BodiesEdit removals = null;
     List<? extends ASTCssNode> childs = new ArrayList<ASTCssNode>(node.getChilds());
     for (ASTCssNode kid : childs) {
       buildScope(kid);
 
       if (kid.getType() == ASTCssNodeType.VARIABLE_DECLARATION) {
         currentScope.registerVariable((VariableDeclaration) kid);
-        manipulator.removeFromBody(kid);
+        removals = remove(removals, kid);
       } else if (kid.getType() == ASTCssNodeType.REUSABLE_STRUCTURE) {
         ReusableStructure mixin = (ReusableStructure) kid;
         Scope bodyScope = currentScope.childByOwners(mixin, mixin.getBody());
@@ -53,7 +65,7 @@ public class InitialScopeExtractor {
         bodyScope.removedFromTree();
         if (bodyScope.hasParent())
           bodyScope.getParent().removedFromTree(); // remove also arguments scope from tree
-        manipulator.removeFromBody(kid);
+        removals = remove(removals, kid);
       } else if (kid.getType() == ASTCssNodeType.RULE_SET) {
         RuleSet ruleSet = (RuleSet) kid;
         if (ruleSet.usableAsReusableStructure()) {
@@ -64,6 +76,8 @@ public class InitialScopeExtractor {
         currentScope.createPlaceholder();
       }
     }
+    if (removals != null)
+      removals.apply();
 
     Scope result = currentScope;
     if (hasOwnScope)
@@ -72,6 +86,12 @@ public class InitialScopeExtractor {
     return result;
   }
 
+  private BodiesEdit remove(BodiesEdit removals, ASTCssNode kid) {
+    BodiesEdit result = removals == null ? new BodiesEdit() : removals;
+    result.remove(kid);
+    return result;
+  }
+
   private void fillScopeNames(ASTCssNode node) {
     switch (node.getType()) {
     case REUSABLE_STRUCTURE:
@@ -96,7 +116,7 @@ public class InitialScopeExtractor {
 
   private void increaseScope(ASTCssNode owner) {
     if (currentScope == null) {
-      currentScope = Scope.createDefaultScope(owner);
+      currentScope = rootScope != null ? rootScope : Scope.createDefaultScope(owner);
     } else if(AstLogic.isBodyOwner(owner)) {
       currentScope = Scope.createBodyOwnerScope(owner, currentScope);
     } else {
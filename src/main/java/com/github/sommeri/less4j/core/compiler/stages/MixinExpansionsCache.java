@@ -0,0 +1,96 @@
+package com.github.sommeri.less4j.core.compiler.stages;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.github.sommeri.less4j.core.ast.ASTCssNode;
+import com.github.sommeri.less4j.core.ast.GeneralBody;
+import com.github.sommeri.less4j.core.ast.ReusableStructure;
+import com.github.sommeri.less4j.core.compiler.scopes.Scope;
+
+/**
+ * Remembers solved bodies of pure mixins. Mixin is pure if its body does not
+ * call other mixins, does not define mixins, does not interpolate variables
+ * into strings or names and declares variables only directly in its body.
+ * Solved body of such mixin depends only on values of variables it
+ * references, so the fingerprint of a call consists of those values as seen
+ * from the mixin working scope.
+ *
+ * Arguments and guards do not need special treatment - arguments are
+ * variables in the working scope and bodies are solved only if guards were
+ * satisfied.
+ *
+ */
+class MixinExpansionsCache {
+
+  private final VariablesFingerprint fingerprints = new VariablesFingerprint();
+  // mixin -> referenced variables or null if the mixin is not pure
+  private final Map<ReusableStructure, Set<String>> referencedVariables = new IdentityHashMap<ReusableStructure, Set<String>>();
+  private final Map<ReusableStructure, Map<String, GeneralBody>> expansions = new IdentityHashMap<ReusableStructure, Map<String, GeneralBody>>();
+  private int hits = 0;
+  private int misses = 0;
+
+  /**
+   * @return fingerprint of the mixin call or <code>null</code> if the
+   *         expansion can not be cached.
+   */
+  public String fingerprint(ReusableStructure mixin, Scope workingScope) {
+    Set<String> variables = getReferencedVariables(mixin);
+    if (variables == null)
+      return null;
+
+    return fingerprints.create(variables, mixin, workingScope);
+  }
+
+  /**
+   * @return copy of previously solved body or <code>null</code>.
+   */
+  public GeneralBody get(ReusableStructure mixin, String fingerprint) {
+    Map<String, GeneralBody> solved = expansions.get(mixin);
+    GeneralBody body = solved == null ? null : solved.get(fingerprint);
+    if (body == null) {
+      misses++;
+      return null;
+    }
+
+    hits++;
+    return body.clone();
+  }
+
+  public void put(ReusableStructure mixin, String fingerprint, GeneralBody solvedBody) {
+    Map<String, GeneralBody> solved = expansions.get(mixin);
+    if (solved == null) {
+      solved = new HashMap<String, GeneralBody>();
+      expansions.put(mixin, solved);
+    }
+    // the solved body becomes part of the compiled tree and may change later
+    solved.put(fingerprint, solvedBody.clone());
+  }
+
+  public int getHits() {
+    return hits;
+  }
+
+  public int getMisses() {
+    return misses;
+  }
+
+  private Set<String> getReferencedVariables(ReusableStructure mixin) {
+    if (referencedVariables.containsKey(mixin))
+      return referencedVariables.get(mixin);
+
+    Set<String> result = new TreeSet<String>();
+    for (ASTCssNode member : mixin.getBody().getMembers()) {
+      if (!fingerprints.collectVariables(member, true, result)) {
+        result = null;
+        break;
+      }
+    }
+    referencedVariables.put(mixin, result);
+    return result;
+  }
+
+}
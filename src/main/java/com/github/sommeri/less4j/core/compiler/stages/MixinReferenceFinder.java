@@ -11,16 +11,32 @@ import com.github.sommeri.less4j.core.compiler.scopes.FullMixinDefinition;
 import com.github.sommeri.less4j.core.compiler.scopes.InScopeSnapshotRunner;
 import com.github.sommeri.less4j.core.compiler.scopes.InScopeSnapshotRunner.ITask;
 import com.github.sommeri.less4j.core.compiler.scopes.Scope;
+import com.github.sommeri.less4j.core.compiler.scopes.ScopeDataState;
+import com.github.sommeri.less4j.core.problems.ProblemsHandler;
 
 public class MixinReferenceFinder {
 
   private final ReferencesSolver parentSolver;
   private final AstNodesStack semiCompiledNodes;
+  private final CompiledNamespacesCache compiledNamespaces;
+  private final ProblemsHandler problemsHandler;
   private boolean foundNamespace = false;
+  private boolean foundStoredMixins = false;
 
   public MixinReferenceFinder(ReferencesSolver referencesSolver, AstNodesStack semiCompiledNodes) {
+    this(referencesSolver, semiCompiledNodes, null, null);
+  }
+
+  /**
+   * @param compiledNamespaces if non-null, compiled namespaces are reused
+   *        while their scopes do not change. Requires problems handler to
+   *        recognize namespaces whose compilation reported problems.
+   */
+  MixinReferenceFinder(ReferencesSolver referencesSolver, AstNodesStack semiCompiledNodes, CompiledNamespacesCache compiledNamespaces, ProblemsHandler problemsHandler) {
     this.parentSolver = referencesSolver;
     this.semiCompiledNodes = semiCompiledNodes;
+    this.compiledNamespaces = compiledNamespaces;
+    this.problemsHandler = problemsHandler;
   }
 
   /**
@@ -39,6 +55,8 @@ public class MixinReferenceFinder {
       space = space.getParent();
       result = findInMatchingNamespace(space, nameChain, reference);
     }
+    // mixins found in namespaces are collected into a new list
+    foundStoredMixins = nameChain.isEmpty() && !result.isEmpty();
     return result;
   }
 
@@ -46,6 +64,13 @@ public class MixinReferenceFinder {
     return foundNamespace;
   }
 
+  /**
+   * @return <code>true</code> if the last found list of mixins is kept by scope
+   */
+  public boolean foundStoredMixins() {
+    return foundStoredMixins;
+  }
+
   private List<FullMixinDefinition> getNearestLocalMixins(Scope scope, ReusableStructureName name) {
     List<FullMixinDefinition> value = scope.getMixinsByName(name);
     if ((value == null || value.isEmpty()) && scope.hasParent())
@@ -84,17 +109,31 @@ public class MixinReferenceFinder {
     final List<FullMixinDefinition> result = new ArrayList<FullMixinDefinition>();
 
     final ReusableStructure mixin = fullMixin.getMixin();
-    final GeneralBody bodyClone = mixin.getBody().clone();
     final Scope scope = fullMixin.getScope();
+    // Referenced namespace attempts to import its own mixins. Do not 
+    // try to compile it. Clones share underlying structure, so it is
+    // enough to check the original body.
+    final boolean compile = !semiCompiledNodes.contains(mixin.getBody());
+
+    if (compile && compiledNamespaces != null) {
+      Scope compiled = compiledNamespaces.get(scope);
+      if (compiled != null)
+        return findInMatchingNamespace(compiled, nameChain, reference);
+    }
+    final ScopeDataState input = compile && compiledNamespaces != null ? scope.captureDataState() : null;
 
     InScopeSnapshotRunner.runInLocalDataSnapshot(scope, new ITask() {
 
       @Override
       public void run() {
-        // Referenced namespace attempts to import its own mixins. Do not 
-        // try to compile it. 
-        if (!semiCompiledNodes.contains(bodyClone)) { 
+        if (compile) { 
+          GeneralBody bodyClone = mixin.getBody().clone();
+          // problems handler is available only when compiled namespaces are remembered
+          int problemsBefore = input != null ? problemsHandler.getProblemsCount() : 0;
           parentSolver.unsafeDoSolveReferences(bodyClone, scope);
+          // copy remembers compiled data after the snapshot is discarded
+          if (input != null && problemsHandler.getProblemsCount() == problemsBefore)
+            compiledNamespaces.put(scope, input, scope.copyWithParentsAndChildChain());
         }
 
         List<FullMixinDefinition> found = findInMatchingNamespace(scope, nameChain, reference);
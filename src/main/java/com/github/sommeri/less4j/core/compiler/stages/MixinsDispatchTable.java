@@ -0,0 +1,164 @@
+package com.github.sommeri.less4j.core.compiler.stages;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.sommeri.less4j.core.ast.ASTCssNode;
+import com.github.sommeri.less4j.core.ast.Expression;
+import com.github.sommeri.less4j.core.ast.ReusableStructure;
+import com.github.sommeri.less4j.core.compiler.expressions.PatternsComparator;
+import com.github.sommeri.less4j.core.compiler.scopes.FullMixinDefinition;
+
+/**
+ * Indexes same name mixins by accepted number of arguments and by pattern in
+ * the first parameter. Index is bound to the list of mixins it was built from.
+ * Lists of stored mixins only grow, so the index is valid as long as the list
+ * keeps its size. Only lists kept by scopes should be indexed, index of a
+ * temporary list would never be used again.
+ *
+ * Candidates found by the index still have to be checked for all their
+ * patterns, index only removes mixins that can not match.
+ *
+ */
+class MixinsDispatchTable {
+
+  private final PatternsComparator comparator;
+  // stored list of same name mixins -> its index
+  private final Map<List<FullMixinDefinition>, Index> indexes = new IdentityHashMap<List<FullMixinDefinition>, Index>();
+
+  public MixinsDispatchTable(PatternsComparator comparator) {
+    this.comparator = comparator;
+  }
+
+  public Index getIndex(List<FullMixinDefinition> storedMixins) {
+    Index index = indexes.get(storedMixins);
+    if (index == null || !index.isBuiltFrom(storedMixins)) {
+      index = new Index(storedMixins, comparator);
+      indexes.put(storedMixins, index);
+    }
+    return index;
+  }
+
+  public PatternsComparator getComparator() {
+    return comparator;
+  }
+
+  public static class Index {
+
+    private final List<FullMixinDefinition> mixins;
+    private final int size;
+    private final int[] minimum;
+    private final int[] maximum;
+    // first pattern key -> positions of mixins with that pattern
+    private final Map<String, List<Integer>> byFirstPattern = new HashMap<String, List<Integer>>();
+    // positions of mixins whose first parameter is not indexed
+    private final List<Integer> notIndexed = new ArrayList<Integer>();
+    // number of arguments -> whether some mixin accepting it has indexed first pattern
+    private final Map<Integer, Boolean> hasFirstPatterns = new HashMap<Integer, Boolean>();
+    // number of arguments and first argument key -> candidates
+    private final Map<String, List<FullMixinDefinition>> candidates = new HashMap<String, List<FullMixinDefinition>>();
+
+    private Index(List<FullMixinDefinition> mixins, PatternsComparator comparator) {
+      this.mixins = mixins;
+      this.size = mixins.size();
+      this.minimum = new int[size];
+      this.maximum = new int[size];
+      for (int i = 0; i < size; i++) {
+        ReusableStructure mixin = mixins.get(i).getMixin();
+        minimum[i] = mixin.getMandatoryParameters().size();
+        maximum[i] = mixin.hasCollectorParameter() ? Integer.MAX_VALUE : mixin.getParameters().size();
+
+        String key = firstPatternKey(mixin, comparator);
+        if (key == null) {
+          notIndexed.add(i);
+        } else {
+          List<Integer> positions = byFirstPattern.get(key);
+          if (positions == null) {
+            positions = new ArrayList<Integer>();
+            byFirstPattern.put(key, positions);
+          }
+          positions.add(i);
+        }
+      }
+    }
+
+    private String firstPatternKey(ReusableStructure mixin, PatternsComparator comparator) {
+      List<ASTCssNode> parameters = mixin.getParameters();
+      if (parameters.isEmpty() || !(parameters.get(0) instanceof Expression))
+        return null;
+
+      return comparator.patternKey((Expression) parameters.get(0));
+    }
+
+    private boolean isBuiltFrom(List<FullMixinDefinition> mixins) {
+      return this.mixins == mixins && size == mixins.size();
+    }
+
+    /**
+     * @return <code>true</code> if candidates accepting the number of arguments depend on 
+     *         the first argument
+     */
+    public boolean hasFirstPatterns(int numberOfArguments) {
+      Boolean result = hasFirstPatterns.get(numberOfArguments);
+      if (result == null) {
+        result = false;
+        for (List<Integer> positions : byFirstPattern.values()) {
+          for (int position : positions) {
+            if (acceptsNumberOfArguments(position, numberOfArguments))
+              result = true;
+          }
+        }
+        hasFirstPatterns.put(numberOfArguments, result);
+      }
+      return result;
+    }
+
+    /**
+     * @param firstArgumentKey
+     *          key of the first positional argument or <code>null</code> if there is none or
+     *          it has no key.
+     * @return mixins accepting the number of arguments whose first pattern is either not indexed
+     *         or matches the first argument. Mixins keep their original order.
+     */
+    public List<FullMixinDefinition> getCandidates(int numberOfArguments, String firstArgumentKey) {
+      String key = numberOfArguments + ":" + firstArgumentKey;
+      List<FullMixinDefinition> result = candidates.get(key);
+      if (result == null) {
+        result = buildCandidates(numberOfArguments, firstArgumentKey);
+        candidates.put(key, result);
+      }
+      return result;
+    }
+
+    private List<FullMixinDefinition> buildCandidates(int numberOfArguments, String firstArgumentKey) {
+      List<Integer> indexed = firstArgumentKey == null ? null : byFirstPattern.get(firstArgumentKey);
+      if (indexed == null)
+        indexed = new ArrayList<Integer>();
+
+      // merge both sorted lists of positions
+      List<FullMixinDefinition> result = new ArrayList<FullMixinDefinition>();
+      int i = 0, j = 0;
+      while (i < indexed.size() || j < notIndexed.size()) {
+        int position;
+        if (j == notIndexed.size() || (i < indexed.size() && indexed.get(i) < notIndexed.get(j))) {
+          position = indexed.get(i++);
+        } else {
+          position = notIndexed.get(j++);
+        }
+
+        if (acceptsNumberOfArguments(position, numberOfArguments))
+          result.add(mixins.get(position));
+      }
+      return result;
+    }
+
+    private boolean acceptsNumberOfArguments(int position, int numberOfArguments) {
+      return numberOfArguments >= minimum[position] && numberOfArguments <= maximum[position];
+    }
+
+  }
+
+}
@@ -1,13 +1,14 @@
 package com.github.sommeri.less4j.core.compiler.stages;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.github.sommeri.less4j.core.ast.ASTCssNode;
 import com.github.sommeri.less4j.core.ast.Expression;
 import com.github.sommeri.less4j.core.ast.MixinReference;
 import com.github.sommeri.less4j.core.ast.ReusableStructure;
-import com.github.sommeri.less4j.core.compiler.expressions.ExpressionComparator;
 import com.github.sommeri.less4j.core.compiler.expressions.ExpressionEvaluator;
 import com.github.sommeri.less4j.core.compiler.expressions.PatternsComparator;
 import com.github.sommeri.less4j.core.compiler.scopes.FullMixinDefinition;
@@ -17,13 +18,53 @@ import com.github.sommeri.less4j.core.problems.ProblemsHandler;
 public class MixinsReferenceMatcher {
 
   private ExpressionEvaluator evaluator;
-  private ExpressionComparator comparator = new PatternsComparator();
+  private final PatternsComparator comparator;
+  private final MixinsDispatchTable dispatchTable;
+  // positional argument -> evaluated value, each argument is evaluated at most once
+  private final Map<Integer, Expression> evaluatedArguments = new HashMap<Integer, Expression>();
 
   public MixinsReferenceMatcher(Scope scope, ProblemsHandler problemsHandler) {
+    this(scope, problemsHandler, null);
+  }
+
+  /**
+   * @param dispatchTable if non-null, indexes of mixins are reused by all
+   *        matchers sharing the table.
+   */
+  MixinsReferenceMatcher(Scope scope, ProblemsHandler problemsHandler, MixinsDispatchTable dispatchTable) {
     evaluator = new ExpressionEvaluator(scope, problemsHandler);
+    this.comparator = dispatchTable == null ? new PatternsComparator() : dispatchTable.getComparator();
+    this.dispatchTable = dispatchTable == null ? new MixinsDispatchTable(comparator) : dispatchTable;
   }
 
   public List<FullMixinDefinition> filter(MixinReference reference, List<FullMixinDefinition> mixins) {
+    return filter(reference, mixins, false);
+  }
+
+  /**
+   * @param storedMixins <code>true</code> if mixins is a list kept by scope, 
+   *        such lists are indexed. Other lists are searched one by one.
+   */
+  List<FullMixinDefinition> filter(MixinReference reference, List<FullMixinDefinition> mixins, boolean storedMixins) {
+    evaluatedArguments.clear();
+    if (!storedMixins)
+      return filterAll(reference, mixins);
+
+    MixinsDispatchTable.Index index = dispatchTable.getIndex(mixins);
+    int numberOfArguments = reference.getNumberOfDeclaredParameters();
+    String firstArgumentKey = null;
+    if (index.hasFirstPatterns(numberOfArguments) && reference.hasPositionalParameter(0))
+      firstArgumentKey = comparator.expressionKey(evaluatePositional(reference, 0));
+
+    List<FullMixinDefinition> result = new ArrayList<FullMixinDefinition>();
+    for (FullMixinDefinition mixin : index.getCandidates(numberOfArguments, firstArgumentKey)) {
+      if (patternsMatch(reference, mixin.getMixin()))
+        result.add(mixin);
+    }
+    return result;
+  }
+
+  private List<FullMixinDefinition> filterAll(MixinReference reference, List<FullMixinDefinition> mixins) {
     int requiredNumber = reference.getNumberOfDeclaredParameters();
     List<FullMixinDefinition> result = new ArrayList<FullMixinDefinition>();
     for (FullMixinDefinition mixin : mixins) {
@@ -34,10 +75,8 @@ public class MixinsReferenceMatcher {
   }
 
   private boolean hasRightNumberOfParameters(ReusableStructure mixin, int requiredNumber) {
-    int allDefined = mixin.getParameters().size();
     int mandatory = mixin.getMandatoryParameters().size();
-    boolean hasRightNumberOfParameters = requiredNumber >= mandatory && (requiredNumber <= allDefined || mixin.hasCollectorParameter());
-    return hasRightNumberOfParameters;
+    return requiredNumber >= mandatory && (requiredNumber <= mixin.getParameters().size() || mixin.hasCollectorParameter());
   }
 
   //FIXME: how does pattern matching and named arguments mix? This is most likely faulty
@@ -49,7 +88,7 @@ public class MixinsReferenceMatcher {
           return false;
 
         Expression pattern = (Expression) parameter;
-        if (!comparator.equal(pattern, evaluator.evaluate(reference.getPositionalParameter(i))))
+        if (!comparator.equal(pattern, evaluatePositional(reference, i)))
           return false;
       }
       i++;
@@ -58,4 +97,13 @@ public class MixinsReferenceMatcher {
     return true;
   }
 
+  private Expression evaluatePositional(MixinReference reference, int i) {
+    Expression result = evaluatedArguments.get(i);
+    if (result == null) {
+      result = evaluator.evaluate(reference.getPositionalParameter(i));
+      evaluatedArguments.put(i, result);
+    }
+    return result;
+  }
+
 }
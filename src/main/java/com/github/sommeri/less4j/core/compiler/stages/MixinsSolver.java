@@ -10,6 +10,7 @@ import com.github.sommeri.less4j.core.ast.Declaration;
 import com.github.sommeri.less4j.core.ast.GeneralBody;
 import com.github.sommeri.less4j.core.ast.MixinReference;
 import com.github.sommeri.less4j.core.ast.ReusableStructure;
+import com.github.sommeri.less4j.core.compiler.CacheStatistics;
 import com.github.sommeri.less4j.core.compiler.expressions.ExpressionEvaluator;
 import com.github.sommeri.less4j.core.compiler.scopes.FullMixinDefinition;
 import com.github.sommeri.less4j.core.compiler.scopes.InScopeSnapshotRunner;
@@ -21,10 +22,13 @@ class MixinsSolver {
 
   private final ProblemsHandler problemsHandler;
   private final ReferencesSolver parentSolver;
+  private final MixinExpansionsCache expansionsCache = new MixinExpansionsCache();
+  private final GuardsCache guardsCache;
 
   public MixinsSolver(ReferencesSolver parentSolver, ProblemsHandler problemsHandler) {
     this.parentSolver = parentSolver;
     this.problemsHandler = problemsHandler;
+    this.guardsCache = new GuardsCache(problemsHandler);
   }
 
   private void resolveMixinReference(final GeneralBody result, final Scope callerScope, final ReusableStructure referencedMixin, final Scope referencedMixinScope, final ExpressionEvaluator expressionEvaluator) {
@@ -40,9 +44,7 @@ class MixinsSolver {
   }
 
   private void unsafeResolveMixinReference(GeneralBody result, Scope callerScope, ReusableStructure referencedMixin, Scope referencedMixinScopeSnapshot, ExpressionEvaluator expressionEvaluator) {
-    // compile referenced mixin - keep the original copy unchanged
-    GeneralBody bodyClone = referencedMixin.getBody().clone();
-    parentSolver.unsafeDoSolveReferences(bodyClone, referencedMixinScopeSnapshot);
+    GeneralBody bodyClone = solveBody(referencedMixin, referencedMixinScopeSnapshot);
     result.addMembers(bodyClone.getMembers());
 
     // collect variables and mixins to be imported
@@ -54,20 +56,43 @@ class MixinsSolver {
     callerScope.addToPlaceholder(returnValues);
   }
 
+  private GeneralBody solveBody(ReusableStructure referencedMixin, Scope referencedMixinScopeSnapshot) {
+    String fingerprint = expansionsCache.fingerprint(referencedMixin, referencedMixinScopeSnapshot);
+    if (fingerprint != null) {
+      GeneralBody solved = expansionsCache.get(referencedMixin, fingerprint);
+      if (solved != null)
+        return solved;
+    }
+
+    // compile referenced mixin - keep the original copy unchanged
+    GeneralBody bodyClone = referencedMixin.getBody().clone();
+    int problemsBefore = problemsHandler.getProblemsCount();
+    parentSolver.unsafeDoSolveReferences(bodyClone, referencedMixinScopeSnapshot);
+    // problems must be reported again on each call, so such bodies are not remembered
+    if (fingerprint != null && problemsHandler.getProblemsCount() == problemsBefore)
+      expansionsCache.put(referencedMixin, fingerprint, bodyClone);
+
+    return bodyClone;
+  }
+
+  public void collectStatistics(CacheStatistics statistics) {
+    statistics.add(CacheStatistics.GUARDS, guardsCache.getHits(), guardsCache.getMisses(), guardsCache.getUncacheable());
+    statistics.add(CacheStatistics.MIXIN_EXPANSIONS, expansionsCache.getHits(), expansionsCache.getMisses(), 0);
+  }
+
   private List<FullMixinDefinition> mixinsToImport(Scope referenceScope, ReusableStructure referencedMixin, Scope referencedMixinScope) {
     List<FullMixinDefinition> result = new ArrayList<FullMixinDefinition>();
     for (FullMixinDefinition mixinToImport : referencedMixinScope.getAllMixins()) {
       boolean isLocalImport = mixinToImport.getScope().seesLocalDataOf(referenceScope);
       if (isLocalImport) {
-        // we need to copy the whole tree, because this runs inside referenced mixin scope 
+        // we need to copy the scope, because this runs inside referenced mixin scope 
         // snapshot and imported mixin needs to remember the scope as it is now 
-        Scope scopeTreeCopy = mixinToImport.getScope().copyWholeTree();
+        Scope scopeTreeCopy = mixinToImport.getScope().copyWithParentsAndChildChain();
         result.add(new FullMixinDefinition(mixinToImport.getMixin(), scopeTreeCopy));
       } else {
         // since this is non-local import, we need to join reference scope and imported mixins scope
         // imported mixin would not have access to variables defined in caller
-        Scope scopeTreeCopy = mixinToImport.getScope().copyWholeTree();
-        scopeTreeCopy.getRootScope().setParent(referencedMixinScope.copyWithParentsChain());
+        Scope scopeTreeCopy = mixinToImport.getScope().copyJoinedTo(referencedMixinScope);
         result.add(new FullMixinDefinition(mixinToImport.getMixin(), scopeTreeCopy));
       }
 
@@ -103,7 +128,7 @@ class MixinsSolver {
           Scope mixinWorkingScope = calculateMixinsWorkingScope(callerScope, mixinArguments, mixinScope);
 
           ExpressionEvaluator expressionEvaluator = new ExpressionEvaluator(mixinWorkingScope, problemsHandler);
-          if (expressionEvaluator.guardsSatisfied(mixin)) {
+          if (guardsCache.guardsSatisfied(mixin, mixinWorkingScope, expressionEvaluator)) {
             resolveMixinReference(result, callerScope, fullMixin.getMixin(), mixinWorkingScope, expressionEvaluator);
           }
         }
@@ -150,9 +175,7 @@ class MixinsSolver {
     }
 
     //join scopes
-    Scope result = mixinScope.copyWholeTree();
-    result.getRootScope().setParent(callerScope.copyWithParentsChain());
-    return result;
+    return mixinScope.copyJoinedTo(callerScope);
   }
 
 }
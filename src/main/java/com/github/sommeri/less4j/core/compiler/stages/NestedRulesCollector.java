@@ -12,18 +12,21 @@ import com.github.sommeri.less4j.core.ast.Selector;
 
 public class NestedRulesCollector {
 
-  private final ASTManipulator manipulator = new ASTManipulator();
   private final SelectorsManipulator selectorsManipulator = new SelectorsManipulator();
   private Stack<List<Selector>> selectors;
   private LinkedList<RuleSet> rulesets;
+  // nested rulesets are removed from their bodies all at once
+  private BodiesEdit removals;
 
   public List<RuleSet> collectNestedRuleSets(RuleSet kid) {
     selectors = new Stack<List<Selector>>();
     rulesets = new LinkedList<RuleSet>();
+    removals = new BodiesEdit();
 
     pushSelectors(kid);
     collectChildRuleSets(kid);
     popSelectors();
+    removals.apply();
 
     return rulesets;
   }
@@ -33,7 +36,7 @@ public class NestedRulesCollector {
     for (ASTCssNode kid : childs) {
       if (kid.getType() == ASTCssNodeType.RULE_SET) {
         RuleSet nestedSet = (RuleSet) kid;
-        manipulator.removeFromBody(nestedSet);
+        removals.remove(nestedSet);
         collect(nestedSet);
         pushSelectors(nestedSet);
       }
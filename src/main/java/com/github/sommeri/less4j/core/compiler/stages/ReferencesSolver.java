@@ -20,7 +20,9 @@ import com.github.sommeri.less4j.core.ast.MixinReference;
 import com.github.sommeri.less4j.core.ast.SimpleSelector;
 import com.github.sommeri.less4j.core.ast.Variable;
 import com.github.sommeri.less4j.core.ast.VariableNamePart;
+import com.github.sommeri.less4j.core.compiler.CacheStatistics;
 import com.github.sommeri.less4j.core.compiler.expressions.ExpressionEvaluator;
+import com.github.sommeri.less4j.core.compiler.expressions.PatternsComparator;
 import com.github.sommeri.less4j.core.compiler.expressions.strings.StringInterpolator;
 import com.github.sommeri.less4j.core.compiler.scopes.FullMixinDefinition;
 import com.github.sommeri.less4j.core.compiler.scopes.InScopeSnapshotRunner;
@@ -38,6 +40,8 @@ public class ReferencesSolver {
   private final MixinsSolver mixinsSolver;
   private final ProblemsHandler problemsHandler;
   private final AstNodesStack semiCompiledNodes = new AstNodesStack();
+  private final CompiledNamespacesCache compiledNamespaces = new CompiledNamespacesCache();
+  private final MixinsDispatchTable mixinsDispatchTable = new MixinsDispatchTable(new PatternsComparator());
   private StringInterpolator stringInterpolator = new StringInterpolator();
 
   public ReferencesSolver(ProblemsHandler problemsHandler) {
@@ -49,6 +53,14 @@ public class ReferencesSolver {
     doSolveReferences(node, new IteratedScope(scope));
   }
 
+  /**
+   * Adds hits and misses of caches used by this solver to the statistics.
+   */
+  public void collectStatistics(CacheStatistics statistics) {
+    statistics.add(CacheStatistics.COMPILED_NAMESPACES, compiledNamespaces.getHits(), compiledNamespaces.getMisses(), 0);
+    mixinsSolver.collectStatistics(statistics);
+  }
+
   private void doSolveReferences(final ASTCssNode node, final IteratedScope scope) {
     // ... and I'm starting to see the point of closures ...
     InScopeSnapshotRunner.runInLocalDataSnapshot(scope, new ITask() {
@@ -112,11 +124,13 @@ public class ReferencesSolver {
   }
 
   private void replaceMixinReferences(Map<MixinReference, GeneralBody> solvedMixinReferences) {
+    BodiesEdit edit = new BodiesEdit();
     for (Entry<MixinReference, GeneralBody> entry : solvedMixinReferences.entrySet()) {
       MixinReference mixinReference = entry.getKey();
       GeneralBody replacement = entry.getValue();
-      manipulator.replaceInBody(mixinReference, replacement.getMembers());
+      edit.replace(mixinReference, replacement.getMembers());
     }
+    edit.apply();
   }
 
   private Map<MixinReference, GeneralBody> solveMixinReferences(List<ASTCssNode> childs, Scope mixinReferenceScope) {
@@ -135,7 +149,7 @@ public class ReferencesSolver {
   }
 
   protected List<FullMixinDefinition> findReferencedMixins(MixinReference mixinReference, Scope scope) {
-    MixinReferenceFinder finder = new MixinReferenceFinder(this, semiCompiledNodes);
+    MixinReferenceFinder finder = new MixinReferenceFinder(this, semiCompiledNodes, compiledNamespaces, problemsHandler);
     List<FullMixinDefinition> sameNameMixins = finder.getNearestMixins(scope, mixinReference);
     if (sameNameMixins.isEmpty()) {
       //error reporting
@@ -146,7 +160,7 @@ public class ReferencesSolver {
       return new ArrayList<FullMixinDefinition>();
     }
 
-    List<FullMixinDefinition> mixins = (new MixinsReferenceMatcher(scope, problemsHandler)).filter(mixinReference, sameNameMixins);
+    List<FullMixinDefinition> mixins = (new MixinsReferenceMatcher(scope, problemsHandler, mixinsDispatchTable)).filter(mixinReference, sameNameMixins, finder.foundStoredMixins());
     if (mixins.isEmpty())
       problemsHandler.unmatchedMixin(mixinReference);
 
@@ -2,10 +2,17 @@ package com.github.sommeri.less4j.core.compiler.stages;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import com.github.sommeri.less4j.LessCompiler.Problem;
 import com.github.sommeri.less4j.LessSource;
 import com.github.sommeri.less4j.LessSource.CannotReadFile;
 import com.github.sommeri.less4j.LessSource.FileNotFound;
@@ -18,6 +25,9 @@ import com.github.sommeri.less4j.core.ast.Import;
 import com.github.sommeri.less4j.core.ast.Import.ImportKind;
 import com.github.sommeri.less4j.core.ast.Media;
 import com.github.sommeri.less4j.core.ast.StyleSheet;
+import com.github.sommeri.less4j.core.cache.ImportedAstCache;
+import com.github.sommeri.less4j.core.cache.NullImportedAstCache;
+import com.github.sommeri.less4j.core.cache.ParsedImport;
 import com.github.sommeri.less4j.core.compiler.expressions.TypesConversionUtils;
 import com.github.sommeri.less4j.core.parser.ANTLRParser;
 import com.github.sommeri.less4j.core.parser.ASTBuilder;
@@ -27,34 +37,77 @@ import com.github.sommeri.less4j.core.problems.ProblemsHandler;
 public class SimpleImportsSolver {
 
   private final ProblemsHandler problemsHandler;
+  private final ImportedAstCache astCache;
+  private final ExecutorService loadingExecutor;
   private TypesConversionUtils conversionUtils = new TypesConversionUtils();
-  private ASTManipulator astManipulator = new ASTManipulator();
 
   private Set<LessSource> importedSources = new HashSet<LessSource>();
+  private Set<LessSource> providedSources = new HashSet<LessSource>();
 
   public SimpleImportsSolver(ProblemsHandler problemsHandler) {
+    this(problemsHandler, new NullImportedAstCache());
+  }
+
+  public SimpleImportsSolver(ProblemsHandler problemsHandler, ImportedAstCache astCache) {
+    this(problemsHandler, astCache, null);
+  }
+
+  /**
+   * @param loadingExecutor if non-null, imported files of each style sheet are
+   *        read and parsed concurrently on it. Imported content is still
+   *        placed into the tree in original order. If <code>null</code>,
+   *        imports are read one by one in the current thread.
+   */
+  public SimpleImportsSolver(ProblemsHandler problemsHandler, ImportedAstCache astCache, ExecutorService loadingExecutor) {
     this.problemsHandler = problemsHandler;
+    this.astCache = astCache;
+    this.loadingExecutor = loadingExecutor;
   }
 
   public void solveImports(StyleSheet node, LessSource source) {
     doSolveImports(node, source);
   }
 
+  /**
+   * Imports of provided sources are removed from the tree, their content is
+   * supplied by some other means e.g., precompiled library.
+   */
+  public void addProvidedSources(Collection<LessSource> sources) {
+    providedSources.addAll(sources);
+  }
+
+  /**
+   * @return all sources imported so far, including transitive imports.
+   */
+  public Set<LessSource> getImportedSources() {
+    return importedSources;
+  }
+
   private void doSolveImports(StyleSheet node, LessSource source) {
-    List<ASTCssNode> childs = new ArrayList<ASTCssNode>(node.getChilds());
-    for (ASTCssNode kid : childs) {
+    List<ImportTarget> targets = new ArrayList<ImportTarget>();
+    for (ASTCssNode kid : new ArrayList<ASTCssNode>(node.getChilds())) {
       if (kid.getType() == ASTCssNodeType.IMPORT) {
-        importEncountered((Import) kid, source);
+        targets.add(resolveTarget((Import) kid, source));
       }
     }
+
+    if (loadingExecutor != null)
+      startLoading(targets);
+
+    // whole imported style sheets are spliced in, so the body is rebuilt only once
+    BodiesEdit edit = new BodiesEdit();
+    for (ImportTarget target : targets) {
+      importEncountered(target, edit);
+    }
+    edit.apply();
   }
 
-  private void importEncountered(Import node, LessSource source) {
+  private ImportTarget resolveTarget(Import node, LessSource source) {
+    ImportTarget target = new ImportTarget(node);
     String filename = conversionUtils.extractFilename(node.getUrlExpression(), problemsHandler);
-    if (filename == null) {
-      problemsHandler.errorWrongImport(node.getUrlExpression());
-      return;
-    }
+    if (filename == null)
+      return target;
+
     String urlParams = "";
     int paramsIndx = filename.lastIndexOf("?");
     if (paramsIndx != -1) {
@@ -64,45 +117,105 @@ public class SimpleImportsSolver {
 
     // css file imports should be left as they are
     // FIXME ! they should be relativized
-    if (isCssFile(filename))
-      return;
+    if (isCssFile(filename)) {
+      target.isCss = true;
+      return target;
+    }
 
     filename = addLessSuffixIfNeeded(filename, urlParams);
-    LessSource importedSource;
+    target.filename = filename;
     try {
-      importedSource = source.relativeSource(filename);
-    } catch (FileNotFound ex) {
+      target.source = source.relativeSource(filename);
+    } catch (Exception ex) {
+      target.sourceProblem = ex;
+    }
+    return target;
+  }
+
+  private void startLoading(List<ImportTarget> targets) {
+    // single import is loaded in current thread, there is nothing to overlap with
+    if (countLoadable(targets) < 2)
+      return;
+
+    for (final ImportTarget target : targets) {
+      if (isLoadable(target)) {
+        target.loading = loadingExecutor.submit(new Callable<LoadedImport>() {
+
+          @Override
+          public LoadedImport call() {
+            return load(target);
+          }
+
+        });
+      }
+    }
+  }
+
+  private int countLoadable(List<ImportTarget> targets) {
+    int result = 0;
+    for (ImportTarget target : targets) {
+      if (isLoadable(target))
+        result++;
+    }
+    return result;
+  }
+
+  private boolean isLoadable(ImportTarget target) {
+    return target.source != null && !providedSources.contains(target.source) && !(isImportOnce(target.node) && alreadyVisited(target.source));
+  }
+
+  private void importEncountered(ImportTarget target, BodiesEdit edit) {
+    Import node = target.node;
+    String filename = target.filename;
+    if (target.isCss)
+      return;
+
+    if (filename == null) {
+      problemsHandler.errorWrongImport(node.getUrlExpression());
+      return;
+    }
+    if (target.sourceProblem instanceof FileNotFound) {
       problemsHandler.errorImportedFileNotFound(node, filename);
       return;
-    } catch (CannotReadFile e) {
+    } else if (target.sourceProblem instanceof CannotReadFile) {
       problemsHandler.errorImportedFileCanNotBeRead(node, filename);
       return;
-    } catch (StringSourceException ex) {
+    } else if (target.sourceProblem instanceof StringSourceException) {
       // imports are relative to current file and we do not know its location
       problemsHandler.warnLessImportNoBaseDirectory(node.getUrlExpression());
       return;
+    } else if (target.sourceProblem instanceof RuntimeException) {
+      throw (RuntimeException) target.sourceProblem;
+    }
+    LessSource importedSource = target.source;
+    if (providedSources.contains(importedSource)) {
+      if (target.loading != null)
+        target.loading.cancel(false);
+      edit.remove(node);
+      return;
     }
 
     // import once should not import a file that was already imported
     if (isImportOnce(node) && alreadyVisited(importedSource)) {
-      astManipulator.removeFromBody(node);
+      if (target.loading != null)
+        target.loading.cancel(false);
+      edit.remove(node);
       return;
     }
     importedSources.add(importedSource);
 
-    String importedContent;
-    try {
-      importedContent = importedSource.getContent();
-    } catch (FileNotFound e) {
+    LoadedImport loaded = target.loading != null ? waitFor(target.loading) : load(target);
+    if (loaded.fileNotFound) {
       problemsHandler.errorImportedFileNotFound(node, filename);
       return;
-    } catch (CannotReadFile e) {
+    }
+    if (loaded.cannotReadFile) {
       problemsHandler.errorImportedFileCanNotBeRead(node, filename);
       return;
     }
 
     // parse imported file
-    StyleSheet importedAst = parseContent(node, importedContent, importedSource);
+    StyleSheet importedAst = parsedContent(node, loaded);
     solveImports(importedAst, importedSource);
 
     // add media queries if needed
@@ -112,9 +225,9 @@ public class SimpleImportsSolver {
       media.setMediums(node.getMediums());
       media.setBody(new GeneralBody(underlyingStructure, importedAst.getMembers()));
       media.configureParentToAllChilds();
-      astManipulator.replaceInBody(node, media);
+      edit.replace(node, media);
     } else {
-      astManipulator.replaceInBody(node, importedAst.getChilds());
+      edit.replace(node, importedAst.getChilds());
     }
   }
 
@@ -126,19 +239,80 @@ public class SimpleImportsSolver {
     return importedSources.contains(importedSource);
   }
 
-  private StyleSheet parseContent(Import importNode, String importedContent, LessSource source) {
+  private LoadedImport waitFor(Future<LoadedImport> loading) {
+    try {
+      return loading.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for imported file.", ex);
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      if (cause instanceof Error)
+        throw (Error) cause;
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  /**
+   * May run in another thread, so it must not touch problems handler nor the
+   * tree being compiled.
+   */
+  private LoadedImport load(ImportTarget target) {
+    LoadedImport result = new LoadedImport();
+    LessSource source = target.source;
+    String importedContent;
+    try {
+      importedContent = source.getContent();
+    } catch (FileNotFound e) {
+      result.fileNotFound = true;
+      return result;
+    } catch (CannotReadFile e) {
+      result.cannotReadFile = true;
+      return result;
+    }
+
+    ParsedImport cached = astCache.get(source, importedContent);
+    if (cached != null) {
+      result.styleSheet = cached.getStyleSheet();
+      result.warnings = cached.getWarnings();
+      return result;
+    }
+
     ANTLRParser parser = new ANTLRParser();
     ANTLRParser.ParseResult parsedSheet = parser.parseStyleSheet(importedContent, source);
     if (parsedSheet.hasErrors()) {
-      StyleSheet result = new StyleSheet(importNode.getUnderlyingStructure());
-      result.addMember(new FaultyNode(importNode));
-      problemsHandler.addErrors(parsedSheet.getErrors());
+      result.errors = parsedSheet.getErrors();
       return result;
     }
-    ASTBuilder astBuilder = new ASTBuilder(problemsHandler);
+    // separate handler collects problems of this file only, so they can be cached with it
+    ProblemsHandler parsingProblems = new ProblemsHandler();
+    ASTBuilder astBuilder = new ASTBuilder(parsingProblems);
     StyleSheet lessStyleSheet = astBuilder.parse(parsedSheet.getTree());
-    return lessStyleSheet;
+    result.errors = parsingProblems.getErrors();
+    result.warnings = parsingProblems.getWarnings();
+    if (parsingProblems.hasErrors()) {
+      result.styleSheet = lessStyleSheet;
+      return result;
+    }
 
+    ConstantsFolder constantsFolder = new ConstantsFolder();
+    constantsFolder.foldConstants(lessStyleSheet);
+    astCache.put(source, new ParsedImport(importedContent, lessStyleSheet, parsingProblems.getWarnings()));
+    result.styleSheet = lessStyleSheet;
+    return result;
+  }
+
+  private StyleSheet parsedContent(Import importNode, LoadedImport loaded) {
+    problemsHandler.addErrors(loaded.errors);
+    problemsHandler.addWarnings(loaded.warnings);
+    if (loaded.styleSheet != null)
+      return loaded.styleSheet;
+
+    StyleSheet result = new StyleSheet(importNode.getUnderlyingStructure());
+    result.addMember(new FaultyNode(importNode));
+    return result;
   }
 
   private String addLessSuffixIfNeeded(String filename, String urlParams) {
@@ -153,4 +327,29 @@ public class SimpleImportsSolver {
     return lowerCase.endsWith(".css") || lowerCase.endsWith("/css");
   }
 
+  private static class ImportTarget {
+
+    private final Import node;
+    private boolean isCss;
+    private String filename;
+    private LessSource source;
+    private Exception sourceProblem;
+    private Future<LoadedImport> loading;
+
+    public ImportTarget(Import node) {
+      this.node = node;
+    }
+
+  }
+
+  private static class LoadedImport {
+
+    private boolean fileNotFound;
+    private boolean cannotReadFile;
+    private StyleSheet styleSheet;
+    private List<Problem> errors = Collections.emptyList();
+    private List<Problem> warnings = Collections.emptyList();
+
+  }
+
 }
@@ -1,6 +1,5 @@
 package com.github.sommeri.less4j.core.compiler.stages;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -17,13 +16,15 @@ public class UselessLessElementsRemover {
       removeFrom((RuleSet) node);
       break;
 
+    // declarations can not contain rule sets
     case CHARSET_DECLARATION:
     case IMPORT:
+    case DECLARATION:
       break;
 
     default:
-      List<ASTCssNode> childs = new ArrayList<ASTCssNode>(node.getChilds());
-      for (ASTCssNode kid : childs) {
+      // only rule set selectors are replaced, so childs do not change during the walk
+      for (ASTCssNode kid : node.getChilds()) {
         removeUselessLessElements(kid);
       }
     }
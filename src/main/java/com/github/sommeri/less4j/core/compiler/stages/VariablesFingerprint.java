@@ -0,0 +1,140 @@
+package com.github.sommeri.less4j.core.compiler.stages;
+
+import java.util.Set;
+
+import com.github.sommeri.less4j.core.ast.ASTCssNode;
+import com.github.sommeri.less4j.core.ast.ColorExpression;
+import com.github.sommeri.less4j.core.ast.CssString;
+import com.github.sommeri.less4j.core.ast.EscapedSelector;
+import com.github.sommeri.less4j.core.ast.EscapedValue;
+import com.github.sommeri.less4j.core.ast.Expression;
+import com.github.sommeri.less4j.core.ast.FixedNamePart;
+import com.github.sommeri.less4j.core.ast.NumberExpression;
+import com.github.sommeri.less4j.core.ast.Variable;
+import com.github.sommeri.less4j.core.compiler.expressions.ExpressionEvaluator;
+import com.github.sommeri.less4j.core.compiler.scopes.Scope;
+import com.github.sommeri.less4j.core.problems.ProblemsHandler;
+import com.github.sommeri.less4j.utils.QuotesKeepingInStringCssPrinter;
+
+/**
+ * Collects variables referenced by a piece of the tree and turns their values
+ * into a string. Results computed from the piece depend only on that string
+ * as long as the piece accesses variables only through their names.
+ *
+ */
+class VariablesFingerprint {
+
+  private static final String INTERPOLATION_START = "@{";
+
+  /**
+   * Adds names of all referenced variables into the result.
+   *
+   * @param isBodyMember
+   *          whether the node is a direct member of a body. Only such
+   *          variable declarations are allowed.
+   * @return <code>false</code> if the node may access variables or mixins in
+   *         other ways.
+   */
+  public boolean collectVariables(ASTCssNode node, boolean isBodyMember, Set<String> result) {
+    switch (node.getType()) {
+    case MIXIN_REFERENCE:
+    case REUSABLE_STRUCTURE:
+    case INDIRECT_VARIABLE:
+    case VARIABLE_NAME_PART:
+    case IMPORT:
+      return false;
+
+    case VARIABLE_DECLARATION:
+      // nested declaration could change values of variables referenced from outside
+      if (!isBodyMember)
+        return false;
+      break;
+
+    case VARIABLE:
+      result.add(((Variable) node).getName());
+      break;
+
+    case STRING_EXPRESSION:
+      if (isInterpolated(((CssString) node).getValue()))
+        return false;
+      break;
+
+    case ESCAPED_VALUE:
+      if (isInterpolated(((EscapedValue) node).getValue()))
+        return false;
+      break;
+
+    case ESCAPED_SELECTOR:
+      if (isInterpolated(((EscapedSelector) node).getValue()))
+        return false;
+      break;
+
+    case FIXED_NAME_PART:
+      if (isInterpolated(((FixedNamePart) node).getName()))
+        return false;
+      break;
+
+    default:
+    }
+
+    for (ASTCssNode kid : node.getChilds()) {
+      if (!collectVariables(kid, false, result))
+        return false;
+    }
+    return true;
+  }
+
+  private boolean isInterpolated(String value) {
+    return value != null && value.contains(INTERPOLATION_START);
+  }
+
+  /**
+   * @return values of variables as seen from the scope or <code>null</code>
+   *         if any of them could not be evaluated without problems.
+   */
+  public String create(Set<String> variables, ASTCssNode owner, Scope scope) {
+    // problems found here would be reported by the real evaluation
+    ProblemsHandler ignoredProblems = new ProblemsHandler();
+    ExpressionEvaluator evaluator = new ExpressionEvaluator(scope, ignoredProblems);
+    StringBuilder result = new StringBuilder();
+    for (String name : variables) {
+      Expression value = evaluator.evaluate(new Variable(owner.getUnderlyingStructure(), name));
+      if (ignoredProblems.hasErrors() || ignoredProblems.hasWarnings())
+        return null;
+
+      result.append(name).append(':');
+      appendValue(result, value);
+      result.append(';');
+    }
+    return result.toString();
+  }
+
+  private void appendValue(StringBuilder result, Expression value) {
+    QuotesKeepingInStringCssPrinter printer = new QuotesKeepingInStringCssPrinter();
+    printer.append(value);
+    result.append(value.getType()).append('=').append(printer.toString());
+    // printed numbers are rounded, but later arithmetic uses exact values
+    appendExactValues(result, value);
+  }
+
+  private void appendExactValues(StringBuilder result, ASTCssNode node) {
+    switch (node.getType()) {
+    case NUMBER:
+      NumberExpression number = (NumberExpression) node;
+      result.append('|').append(number.getValueAsDouble()).append(number.getSuffix()).append(number.getDimension());
+      break;
+
+    case COLOR_EXPRESSION:
+      ColorExpression color = (ColorExpression) node;
+      result.append('|').append(color.getRed()).append(',').append(color.getGreen()).append(',').append(color.getBlue()).append(',').append(color.getAlpha());
+      break;
+
+    default:
+    }
+
+    for (ASTCssNode kid : node.getChilds()) {
+      appendExactValues(result, kid);
+    }
+  }
+
+}
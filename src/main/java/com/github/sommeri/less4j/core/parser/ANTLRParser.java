@@ -4,7 +4,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
@@ -89,7 +88,7 @@ public class ANTLRParser {
     return lexer;
   }
 
-  private HiddenTokenAwareTree merge(HiddenTokenAwareTree ast, LinkedList<CommonToken> hiddenTokens) {
+  private HiddenTokenAwareTree merge(HiddenTokenAwareTree ast, List<CommonToken> hiddenTokens) {
     ListToTreeCombiner combiner = new ListToTreeCombiner();
     combiner.associate(ast, hiddenTokens);
     return ast;
@@ -173,7 +172,8 @@ class CollectorTokenSource implements TokenSource {
 
   private final TokenSource source;
   private final Set<Integer> collectTokenTypes = new HashSet<Integer>();
-  private final LinkedList<CommonToken> collectedTokens = new LinkedList<CommonToken>();
+  // random access list, the combiner walks it by indices
+  private final List<CommonToken> collectedTokens = new ArrayList<CommonToken>();
 
   public CollectorTokenSource(TokenSource source, Collection<Integer> collectTokenTypes) {
     super();
@@ -204,7 +204,7 @@ class CollectorTokenSource implements TokenSource {
     return collectTokenTypes.contains(nextToken.getType());
   }
 
-  public LinkedList<CommonToken> getCollectedTokens() {
+  public List<CommonToken> getCollectedTokens() {
     return collectedTokens;
   }
 
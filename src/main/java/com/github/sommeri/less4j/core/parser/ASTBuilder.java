@@ -1,13 +1,18 @@
 package com.github.sommeri.less4j.core.parser;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.antlr.runtime.CommonToken;
 
 import com.github.sommeri.less4j.LessSource;
 import com.github.sommeri.less4j.core.ast.ASTCssNode;
 import com.github.sommeri.less4j.core.ast.Comment;
+import com.github.sommeri.less4j.core.ast.ReusableStructure;
+import com.github.sommeri.less4j.core.ast.ReusableStructureName;
 import com.github.sommeri.less4j.core.ast.StyleSheet;
 import com.github.sommeri.less4j.core.problems.ProblemsHandler;
 import com.github.sommeri.less4j.core.validators.LessAstValidator;
@@ -27,9 +32,53 @@ public class ASTBuilder {
     convertComments(result);
     solveParentChildRelationShips(result);
     checkForWarnings(result);
+    // only positions are needed from now on, parse tree can be garbage collected
+    compactUnderlyingStructures(result, new IdentityHashMap<HiddenTokenAwareTree, HiddenTokenAwareTree>());
     return (StyleSheet) result;
   }
 
+  /**
+   * Nodes sharing the same underlying structure keep sharing its compact copy.
+   * Some compiler stages compare underlying structures by identity.
+   */
+  private void compactUnderlyingStructures(ASTCssNode node, Map<HiddenTokenAwareTree, HiddenTokenAwareTree> compacted) {
+    compactUnderlyingStructure(node, compacted);
+    compactUnderlyingStructures(node.getOpeningComments(), compacted);
+    compactUnderlyingStructures(node.getOrphanComments(), compacted);
+    compactUnderlyingStructures(node.getTrailingComments(), compacted);
+    for (ASTCssNode kid : node.getChilds()) {
+      compactUnderlyingStructures(kid, compacted);
+    }
+    // guards and name parts are not among childs
+    switch (node.getType()) {
+    case REUSABLE_STRUCTURE:
+      compactUnderlyingStructures(((ReusableStructure) node).getGuards(), compacted);
+      break;
+
+    case REUSABLE_STRUCTURE_NAME:
+      compactUnderlyingStructures(((ReusableStructureName) node).getNameParts(), compacted);
+      break;
+
+    default:
+    }
+  }
+
+  private void compactUnderlyingStructures(List<? extends ASTCssNode> nodes, Map<HiddenTokenAwareTree, HiddenTokenAwareTree> compacted) {
+    for (ASTCssNode node : nodes) {
+      compactUnderlyingStructures(node, compacted);
+    }
+  }
+
+  private void compactUnderlyingStructure(ASTCssNode node, Map<HiddenTokenAwareTree, HiddenTokenAwareTree> compacted) {
+    HiddenTokenAwareTree underlying = node.getUnderlyingStructure();
+    HiddenTokenAwareTree compact = compacted.get(underlying);
+    if (compact == null) {
+      compact = underlying.compact();
+      compacted.put(underlying, compact);
+    }
+    node.setUnderlyingStructure(compact);
+  }
+
  private void checkForWarnings(ASTCssNode result) {
    LessAstValidator validator = new LessAstValidator(problemsHandler);
    validator.validate(result);
@@ -66,12 +115,15 @@ public class ASTBuilder {
   }
   
   private List<Comment> convertToComments(List<CommonToken> preceding, LessSource source) {
-    List<Comment> result = new ArrayList<Comment>();
+    // nodes without comments share the empty list
+    List<Comment> result = Collections.emptyList();
 
     Comment comment = null;
     for (CommonToken token : preceding) {
       if (token.getType() == LessLexer.COMMENT) {
         comment = new Comment(new HiddenTokenAwareTree(token, source));
+        if (result.isEmpty())
+          result = new ArrayList<Comment>(2);
         result.add(comment);
       }
       if (token.getType() == LessLexer.NEW_LINE) {
@@ -12,6 +12,8 @@ import com.github.sommeri.less4j.LessSource;
 
 public class HiddenTokenAwareErrorTree extends HiddenTokenAwareTree {
 
+  private static final long serialVersionUID = 1L;
+
   private final CommonErrorNode errorNode;
 
   public HiddenTokenAwareErrorTree(TokenStream input, Token start, Token stop, RecognitionException e, LessSource source) {
@@ -183,6 +185,13 @@ public class HiddenTokenAwareErrorTree extends HiddenTokenAwareTree {
     return errorNode.toStringTree();
   }
 
+  /**
+   * Error trees describe faulty input and are kept as they are.
+   */
+  public HiddenTokenAwareTree compact() {
+    return this;
+  }
+
   public Token getStart() {
     return errorNode.start;
   }
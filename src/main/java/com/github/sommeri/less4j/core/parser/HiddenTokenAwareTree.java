@@ -1,8 +1,11 @@
 package com.github.sommeri.less4j.core.parser;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.antlr.runtime.CommonToken;
@@ -11,12 +14,20 @@ import org.antlr.runtime.tree.CommonTree;
 
 import com.github.sommeri.less4j.LessSource;
 
-public class HiddenTokenAwareTree extends CommonTree {
+/**
+ * Serialized tree keeps only its resolved source position. Children, parent and
+ * hidden tokens are needed only while the AST is being built. Deserialized trees
+ * are bound to the source supplied by {@link TreeInputStream}.
+ */
+public class HiddenTokenAwareTree extends CommonTree implements Serializable {
+
+  private static final long serialVersionUID = 1L;
 
   private final LessSource source;
-  private List<CommonToken> preceding = new LinkedList<CommonToken>();
-  private List<CommonToken> orphans = new LinkedList<CommonToken>();
-  private List<CommonToken> following = new LinkedList<CommonToken>();
+  // most nodes have no hidden tokens, lists are allocated on first add
+  private List<CommonToken> preceding;
+  private List<CommonToken> orphans;
+  private List<CommonToken> following;
   private CommonToken tokenAsCommon;
 
   public HiddenTokenAwareTree(CommonToken payload, LessSource source) {
@@ -63,20 +74,23 @@ public class HiddenTokenAwareTree extends CommonTree {
     return (HiddenTokenAwareTree) super.getParent();
   }
 
+  /**
+   * Returned list must not be modified.
+   */
   public List<CommonToken> getPreceding() {
-    return preceding;
-
+    return readOnly(preceding);
   }
 
   public List<CommonToken> chopPreceedingUpToLastOfType(int type) {
-    List<CommonToken> result = new ArrayList<CommonToken>();
     List<CommonToken> preceding = getPreceding();
     
     int index = lastTokenOfType(preceding, type);
-    for (int i = 0; i <= index; i++) {
-      CommonToken next = preceding.remove(0);
-      result.add(next);
-    }
+    if (index == -1)
+      return new ArrayList<CommonToken>();
+
+    List<CommonToken> chopped = preceding.subList(0, index + 1);
+    List<CommonToken> result = new ArrayList<CommonToken>(chopped);
+    chopped.clear();
     
     return result;
   }
@@ -93,44 +107,72 @@ public class HiddenTokenAwareTree extends CommonTree {
     return -1;
   }
 
+  /**
+   * Returned list must not be modified.
+   */
   public List<CommonToken> getFollowing() {
-    return following;
+    return readOnly(following);
   }
 
+  /**
+   * Returned list must not be modified.
+   */
   public List<CommonToken> getOrphans() {
-    return orphans;
+    return readOnly(orphans);
   }
 
   public void addPreceding(CommonToken token) {
-    preceding.add(token);
+    preceding = add(preceding, token);
   }
 
   public void addPreceding(List<CommonToken> tokens) {
-    preceding.addAll(tokens);
+    preceding = addAll(preceding, preceding == null ? 0 : preceding.size(), tokens);
   }
 
   public void addBeforePreceding(List<CommonToken> tokens) {
-    preceding.addAll(0, tokens);
+    preceding = addAll(preceding, 0, tokens);
   }
 
   public void addOrphan(CommonToken token) {
-    orphans.add(token);
+    orphans = add(orphans, token);
   }
 
   public void addOrphans(List<CommonToken> tokens) {
-    orphans.addAll(tokens);
+    orphans = addAll(orphans, orphans == null ? 0 : orphans.size(), tokens);
   }
 
   public void addFollowing(CommonToken token) {
-    following.add(token);
+    following = add(following, token);
   }
 
   public void addBeforeFollowing(List<CommonToken> tokens) {
-    following.addAll(0, tokens);
+    following = addAll(following, 0, tokens);
   }
 
   public void addFollowing(List<CommonToken> tokens) {
-    following.addAll(tokens);
+    following = addAll(following, following == null ? 0 : following.size(), tokens);
+  }
+
+  private static List<CommonToken> readOnly(List<CommonToken> tokens) {
+    if (tokens == null)
+      return Collections.emptyList();
+    return tokens;
+  }
+
+  private static List<CommonToken> add(List<CommonToken> tokens, CommonToken token) {
+    if (tokens == null)
+      tokens = new ArrayList<CommonToken>(2);
+    tokens.add(token);
+    return tokens;
+  }
+
+  private static List<CommonToken> addAll(List<CommonToken> tokens, int index, List<CommonToken> added) {
+    if (added.isEmpty())
+      return tokens;
+    if (tokens == null)
+      return new ArrayList<CommonToken>(added);
+    tokens.addAll(index, added);
+    return tokens;
   }
 
   public void pushHiddenToKids() {
@@ -244,15 +286,75 @@ public class HiddenTokenAwareTree extends CommonTree {
   }
 
   public void removePreceding() {
-    preceding = new ArrayList<CommonToken>();
+    preceding = null;
   }
 
   public void removeFollowing() {
-    following = new ArrayList<CommonToken>();
+    following = null;
   }
 
   public boolean isReal() {
     return tokenAsCommon!=null && tokenAsCommon.getTokenIndex()!=-1;
   }
 
+  /**
+   * Detached copy with the same type, text, source and position. The copy does
+   * not reference other trees, hidden tokens nor the parsed input, so the parse
+   * tree can be garbage collected once nothing else points to it.
+   */
+  public HiddenTokenAwareTree compact() {
+    boolean hasPosition = isReal() || getFirstRealDescendant() != null;
+    return compact(getToken() != null, getType(), getText(), hasPosition, getLine(), getCharPositionInLine(), source);
+  }
+
+  private static HiddenTokenAwareTree compact(boolean hasToken, int type, String text, boolean hasPosition, int line, int charPositionInLine, LessSource source) {
+    if (!hasToken && !hasPosition)
+      return new HiddenTokenAwareTree(source);
+
+    CommonToken token = new CommonToken(type, text);
+    if (hasPosition) {
+      token.setLine(line);
+      token.setCharPositionInLine(charPositionInLine);
+      token.setTokenIndex(0);
+    }
+    return new HiddenTokenAwareTree(token, source);
+  }
+
+  private Object writeReplace() throws ObjectStreamException {
+    return new SerializedTree(this);
+  }
+
+  private static class SerializedTree implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean hasToken;
+    private final int type;
+    private final String text;
+    private final boolean hasPosition;
+    private final int line;
+    private final int charPositionInLine;
+    private transient LessSource source;
+
+    public SerializedTree(HiddenTokenAwareTree tree) {
+      hasToken = tree.getToken() != null;
+      type = tree.getType();
+      text = tree.getText();
+      hasPosition = tree.isReal() || tree.getFirstRealDescendant() != null;
+      line = tree.getLine();
+      charPositionInLine = tree.getCharPositionInLine();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+      in.defaultReadObject();
+      if (in instanceof TreeInputStream)
+        source = ((TreeInputStream) in).getSource();
+    }
+
+    private Object readResolve() throws ObjectStreamException {
+      return compact(hasToken, type, text, hasPosition, line, charPositionInLine, source);
+    }
+
+  }
+
 }
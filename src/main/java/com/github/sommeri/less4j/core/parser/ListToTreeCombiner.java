@@ -3,7 +3,6 @@ package com.github.sommeri.less4j.core.parser;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.antlr.runtime.CommonToken;
@@ -20,30 +19,34 @@ import com.github.sommeri.less4j.core.parser.LessLexer;
  */
 public class ListToTreeCombiner {
 
-  private LinkedList<CommonToken> hiddenTokens;
+  private final PositionComparator positionComparator = new PositionComparator();
+  private List<CommonToken> hiddenTokens;
+  // tokens before this index are already associated
+  private int next;
 
-  public void associate(HiddenTokenAwareTree ast, LinkedList<CommonToken> hiddenTokens) {
+  public void associate(HiddenTokenAwareTree ast, List<CommonToken> hiddenTokens) {
     initialize(hiddenTokens);
 
-    LinkedList<HiddenTokenAwareTree> children = getChildren(ast);
+    List<HiddenTokenAwareTree> children = getChildren(ast);
     associateAllchilds(children);
 
     if (children.isEmpty()) {
       addAllContainedTokens(ast);
     } else {
-      HiddenTokenAwareTree lastChild = children.getLast();
-      lastChild.addFollowing(hiddenTokens);
+      HiddenTokenAwareTree lastChild = children.get(children.size() - 1);
+      lastChild.addFollowing(readPrefix(Integer.MAX_VALUE));
     }
   }
 
-  private void initialize(LinkedList<CommonToken> hiddenTokens) {
+  private void initialize(List<CommonToken> hiddenTokens) {
     this.hiddenTokens = hiddenTokens;
+    this.next = 0;
   }
 
   private void associateAsChild(HiddenTokenAwareTree ast) {
     addAllPrecedingTokens(ast);
 
-    LinkedList<HiddenTokenAwareTree> children = getChildren(ast);
+    List<HiddenTokenAwareTree> children = getChildren(ast);
     if (children.isEmpty()) {
       addAllContainedTokens(ast);
       return;
@@ -53,7 +56,7 @@ public class ListToTreeCombiner {
     addFollowingTokens(lastChild, ast.getTokenStopIndex());
   }
 
-  private HiddenTokenAwareTree associateAllchilds(LinkedList<HiddenTokenAwareTree> children) {
+  private HiddenTokenAwareTree associateAllchilds(List<HiddenTokenAwareTree> children) {
     HiddenTokenAwareTree previousChild = null;
     for (HiddenTokenAwareTree child : children) {
       assignFirstCommentsSegment(previousChild, child);
@@ -79,11 +82,11 @@ public class ListToTreeCombiner {
     if (firstChild == null)
       return;
 
-    LinkedList<CommonToken> tail = readTillNewLine(secondChild.getTokenStartIndex());
+    List<CommonToken> tail = readTillNewLine(secondChild.getTokenStartIndex());
     if (tail.isEmpty())
       return;
 
-    if (tail.peekLast().getType() == LessLexer.NEW_LINE)
+    if (tail.get(tail.size() - 1).getType() == LessLexer.NEW_LINE)
       firstChild.addFollowing(tail);
     else
       secondChild.addPreceding(tail);
@@ -95,53 +98,64 @@ public class ListToTreeCombiner {
     ast.addOrphans(result);
   }
 
-  private LinkedList<HiddenTokenAwareTree> getChildren(HiddenTokenAwareTree ast) {
+  private List<HiddenTokenAwareTree> getChildren(HiddenTokenAwareTree ast) {
     List<HiddenTokenAwareTree> children = ast.getChildren();
     if (children == null)
-      return new LinkedList<HiddenTokenAwareTree>();
+      return Collections.emptyList();
 
-    LinkedList<HiddenTokenAwareTree> copy = new LinkedList<HiddenTokenAwareTree>(children);
-    Collections.sort(copy, new PositionComparator());
+    if (isSorted(children))
+      return children;
+
+    List<HiddenTokenAwareTree> copy = new ArrayList<HiddenTokenAwareTree>(children);
+    Collections.sort(copy, positionComparator);
     return copy;
   }
 
+  private boolean isSorted(List<HiddenTokenAwareTree> children) {
+    for (int i = 1; i < children.size(); i++) {
+      if (positionComparator.compare(children.get(i - 1), children.get(i)) > 0)
+        return false;
+    }
+    return true;
+  }
+
   private void addAllPrecedingTokens(HiddenTokenAwareTree target) {
     int start = target.getTokenStartIndex();
     List<CommonToken> tokens = readPrefix(start);
     target.addPreceding(tokens);
   }
 
-  private LinkedList<CommonToken> readTillNewLine(int end) {
-    LinkedList<CommonToken> result = new LinkedList<CommonToken>();
-    if (hiddenTokens.isEmpty())
-      return result;
-
-    CommonToken first = hiddenTokens.peekFirst();
-    while (first != null && first.getTokenIndex() < end && first.getType() == LessLexer.COMMENT) {
-      result.add(first);
-      hiddenTokens.removeFirst();
-      first = hiddenTokens.peekFirst();
+  /**
+   * Reads comments before the end and the first token that is not a comment.
+   * That token is returned, but remains unread.
+   * 
+   * Returned list is a view of hidden tokens and must not be modified.
+   */
+  private List<CommonToken> readTillNewLine(int end) {
+    int start = next;
+    while (next < hiddenTokens.size() && isBefore(next, end) && hiddenTokens.get(next).getType() == LessLexer.COMMENT) {
+      next++;
     }
 
-    if (first == null || first.getTokenIndex() >= end)
-      return result;
+    if (next == hiddenTokens.size() || !isBefore(next, end))
+      return hiddenTokens.subList(start, next);
 
-    result.add(first);
-    return result;
+    return hiddenTokens.subList(start, next + 1);
   }
 
+  /**
+   * Returned list is a view of hidden tokens and must not be modified.
+   */
   private List<CommonToken> readPrefix(int end) {
-    List<CommonToken> result = new ArrayList<CommonToken>();
-    if (hiddenTokens.isEmpty())
-      return result;
-
-    CommonToken first = hiddenTokens.peekFirst();
-    while (first != null && first.getTokenIndex() < end) {
-      result.add(first);
-      hiddenTokens.removeFirst();
-      first = hiddenTokens.peekFirst();
+    int start = next;
+    while (next < hiddenTokens.size() && isBefore(next, end)) {
+      next++;
     }
-    return result;
+    return hiddenTokens.subList(start, next);
+  }
+
+  private boolean isBefore(int index, int end) {
+    return hiddenTokens.get(index).getTokenIndex() < end;
   }
 
   class PositionComparator implements Comparator<CommonTree> {
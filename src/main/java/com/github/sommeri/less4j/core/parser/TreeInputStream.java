@@ -0,0 +1,91 @@
+package com.github.sommeri.less4j.core.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.github.sommeri.less4j.LessSource;
+
+/**
+ * Reads serialized abstract syntax trees. All deserialized
+ * {@link HiddenTokenAwareTree}s belong to the source given in constructor.
+ *
+ * Only less4j classes, java.util collections, strings and boxed primitives
+ * can be deserialized. Anything else in the stream is refused before it is
+ * instantiated.
+ * 
+ * Less4j classes declare fixed serialVersionUID, so serialization itself would
+ * read trees written by older classes and leave new fields empty. Serialized
+ * fields of less4j classes are therefore compared with current ones and trees
+ * written by changed classes are refused.
+ */
+public class TreeInputStream extends ObjectInputStream {
+
+  private static final String LESS4J_PACKAGE = "com.github.sommeri.less4j.";
+  private static final String COLLECTIONS_PACKAGE = "java.util.";
+  private static final Set<String> ALLOWED_CLASSES = new HashSet<String>(Arrays.asList(String.class.getName(), Number.class.getName(), Enum.class.getName(), Boolean.class.getName(), Character.class.getName(), Byte.class.getName(), Short.class.getName(), Integer.class.getName(), Long.class.getName(), Float.class.getName(), Double.class.getName()));
+
+  private final LessSource source;
+
+  public TreeInputStream(InputStream in, LessSource source) throws IOException {
+    super(in);
+    this.source = source;
+  }
+
+  public LessSource getSource() {
+    return source;
+  }
+
+  @Override
+  protected Class<?> resolveClass(ObjectStreamClass description) throws IOException, ClassNotFoundException {
+    if (!isAllowed(description.getName()))
+      throw new InvalidClassException(description.getName(), "Class is not part of serialized abstract syntax tree.");
+
+    Class<?> result = super.resolveClass(description);
+    if (description.getName().startsWith(LESS4J_PACKAGE) && !hasSameFields(description, ObjectStreamClass.lookup(result)))
+      throw new InvalidClassException(description.getName(), "Class changed since the tree was serialized.");
+
+    return result;
+  }
+
+  private boolean hasSameFields(ObjectStreamClass serialized, ObjectStreamClass current) {
+    if (current == null)
+      return false;
+
+    ObjectStreamField[] serializedFields = serialized.getFields();
+    ObjectStreamField[] currentFields = current.getFields();
+    if (serializedFields.length != currentFields.length)
+      return false;
+
+    // both arrays are sorted by serialization itself
+    for (int i = 0; i < serializedFields.length; i++) {
+      ObjectStreamField serializedField = serializedFields[i];
+      ObjectStreamField currentField = currentFields[i];
+      if (!serializedField.getName().equals(currentField.getName()) || serializedField.getTypeCode() != currentField.getTypeCode())
+        return false;
+      if (!serializedField.isPrimitive() && !serializedField.getTypeString().equals(currentField.getTypeString()))
+        return false;
+    }
+    return true;
+  }
+
+  private boolean isAllowed(String name) {
+    String elementName = name;
+    while (elementName.startsWith("["))
+      elementName = elementName.substring(1);
+
+    if (elementName.length() == 1 && name.length() > 1) // array of primitives
+      return true;
+    if (elementName.length() != name.length()) // array of objects
+      elementName = elementName.substring(1, elementName.length() - 1);
+
+    return elementName.startsWith(LESS4J_PACKAGE) || elementName.startsWith(COLLECTIONS_PACKAGE) || ALLOWED_CLASSES.contains(elementName);
+  }
+
+}
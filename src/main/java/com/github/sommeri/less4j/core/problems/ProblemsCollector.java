@@ -23,6 +23,10 @@ public class ProblemsCollector {
     warnings.add(warning);
   }
 
+  public void addWarnings(Collection<Problem> warnings) {
+    this.warnings.addAll(warnings);
+  }
+
   public boolean hasErrors() {
     return !errors.isEmpty();
   }
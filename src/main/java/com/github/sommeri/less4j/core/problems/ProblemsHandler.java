@@ -254,8 +254,19 @@ public class ProblemsHandler {
     return collector.getErrors();
   }
 
+  /**
+   * @return number of errors and warnings reported so far
+   */
+  public int getProblemsCount() {
+    return collector.getErrors().size() + collector.getWarnings().size();
+  }
+
   public void addErrors(List<Problem> errors) {
     collector.addErrors(errors);
   }
 
+  public void addWarnings(List<Problem> warnings) {
+    collector.addWarnings(warnings);
+  }
+
 }
@@ -26,7 +26,7 @@ public class ArraysUtils {
 
   @SuppressWarnings("unchecked")
   public static <T extends ASTCssNode> List<T> deeplyClonedList(List<T> list) {
-    List<T> result = new ArrayList<T>();
+    List<T> result = new ArrayList<T>(list.size());
     for (T t : list) {
       result.add((T)t.clone());
     }
@@ -78,7 +78,13 @@ public class CssPrinter {
   protected ExtendedStringBuilder cssOnly = new ExtendedStringBuilder();
   protected SourceMapBuilder cssAndSM = new SourceMapBuilder(cssOnly, null, null);
   
-  private static final DecimalFormat FORMATTER = createFormatter();
+  // decimal format is not thread safe and printers run in parallel compilations
+  private static final ThreadLocal<DecimalFormat> FORMATTER = new ThreadLocal<DecimalFormat>() {
+    @Override
+    protected DecimalFormat initialValue() {
+      return createFormatter();
+    }
+  };
   private LessSource lessSource;
   private LessSource cssDestination;
 
@@ -961,7 +967,7 @@ public class CssPrinter {
     if (valueAsDouble.isNaN())
       return "NaN";
 
-    return FORMATTER.format(valueAsDouble);
+    return FORMATTER.get().format(valueAsDouble);
   }
 
   public String toString() {
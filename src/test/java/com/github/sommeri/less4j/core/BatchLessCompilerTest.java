@@ -0,0 +1,54 @@
+package com.github.sommeri.less4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.sommeri.less4j.LessSource;
+import com.github.sommeri.less4j.LessSource.FileSource;
+import com.github.sommeri.less4j.LessSource.StringSource;
+
+public class BatchLessCompilerTest {
+
+  private static final String DIRECTORY = "src/test/resources/less.js-v1.3.3/less/";
+  private static final String[] INPUTS = { "operations.less", "colors.less", "functions.less", "mixins-guards.less", "import.less", "variables.less", "css.less", "mixins.less" };
+
+  @Test
+  public void resultsInInputOrder() throws Exception {
+    List<LessSource> sources = new ArrayList<LessSource>();
+    for (String input : INPUTS) {
+      sources.add(new FileSource(new File(DIRECTORY + input)));
+    }
+
+    List<SourceCompilationResult> results = new BatchLessCompiler(4).compileAll(sources);
+    assertEquals(sources.size(), results.size());
+    DefaultLessCompiler sequential = new DefaultLessCompiler();
+    for (int i = 0; i < sources.size(); i++) {
+      SourceCompilationResult result = results.get(i);
+      assertSame(sources.get(i), result.getSource());
+      assertFalse(result.hasErrors());
+      assertEquals(INPUTS[i], sequential.compile(new File(DIRECTORY + INPUTS[i])).getCss(), result.getCss());
+    }
+  }
+
+  @Test
+  public void errorsReportedPerSource() {
+    List<LessSource> sources = new ArrayList<LessSource>();
+    sources.add(new StringSource(".a { color: red; }"));
+    sources.add(new StringSource(".b { color: @undefined; }"));
+    sources.add(new StringSource(".c { color: blue; }"));
+
+    List<SourceCompilationResult> results = new BatchLessCompiler(3).compileAll(sources);
+    assertFalse(results.get(0).hasErrors());
+    assertTrue(results.get(1).hasErrors());
+    assertEquals(".c {\n  color: blue;\n}\n", results.get(2).getCss());
+  }
+
+}
@@ -0,0 +1,77 @@
+package com.github.sommeri.less4j.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.github.sommeri.less4j.Less4jException;
+import com.github.sommeri.less4j.LessCompiler;
+import com.github.sommeri.less4j.LessCompiler.CompilationResult;
+import com.github.sommeri.less4j.LessCompiler.Problem;
+import com.github.sommeri.less4j.core.cache.NullImportedAstCache;
+
+public class ConcurrentImportsTest {
+
+  private static final String[] DIRECTORIES = { "src/test/resources/compile-basic-features/import/", "src/test/resources/less.js-v1.3.3/less/" };
+
+  private static ExecutorService executor;
+
+  @BeforeClass
+  public static void startExecutor() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterClass
+  public static void stopExecutor() {
+    executor.shutdown();
+  }
+
+  @Test
+  public void sameResultAsSequentialImports() {
+    LessCompiler sequential = new DefaultLessCompiler();
+    LessCompiler concurrent = new LessCompilerEngine(new NullImportedAstCache(), executor);
+    for (File input : importingFiles()) {
+      assertEquals(input.getPath(), compile(sequential, input), compile(concurrent, input));
+    }
+  }
+
+  private String compile(LessCompiler compiler, File input) {
+    try {
+      CompilationResult result = compiler.compile(input);
+      return result.getCss() + describe(result.getWarnings());
+    } catch (Less4jException ex) {
+      return ex.getPartialResult().getCss() + describe(ex.getErrors());
+    }
+  }
+
+  private String describe(List<Problem> problems) {
+    StringBuilder result = new StringBuilder();
+    for (Problem problem : problems) {
+      result.append("\n").append(problem.getLine()).append(":").append(problem.getCharacter()).append(" ").append(problem.getMessage());
+    }
+    return result.toString();
+  }
+
+  private List<File> importingFiles() {
+    List<File> result = new ArrayList<File>();
+    for (String directory : DIRECTORIES) {
+      Collection<File> files = FileUtils.listFiles(new File(directory), new String[] { "less" }, false);
+      for (File file : files) {
+        if (file.getName().startsWith("import"))
+          result.add(file);
+      }
+    }
+    return result;
+  }
+
+}
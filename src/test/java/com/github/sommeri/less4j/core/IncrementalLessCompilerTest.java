@@ -0,0 +1,120 @@
+package com.github.sommeri.less4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.sommeri.less4j.LessSource;
+import com.github.sommeri.less4j.LessSource.FileSource;
+
+public class IncrementalLessCompilerTest {
+
+  private File directory;
+  private LessSource main1;
+  private LessSource main2;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = File.createTempFile("less4j-incremental", "");
+    directory.delete();
+    directory.mkdirs();
+
+    write("main1.less", "@import \"a\";");
+    write("main2.less", "@import \"b\";");
+    write("a.less", "@import \"c\";\n.a { color: @c; }");
+    write("b.less", ".b { color: blue; }");
+    write("c.less", "@c: red;");
+
+    main1 = new FileSource(new File(directory, "main1.less"));
+    main2 = new FileSource(new File(directory, "main2.less"));
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(directory);
+  }
+
+  @Test
+  public void recompilesOnlyDependentEntryPoints() throws IOException {
+    IncrementalLessCompiler compiler = new IncrementalLessCompiler();
+    compiler.addEntryPoint(main1);
+    compiler.addEntryPoint(main2);
+    assertEquals(2, compiler.compileChanged().size());
+    assertTrue(compiler.getDependencies(main1).contains(source("c.less")));
+
+    write("c.less", "@c: green;");
+    assertEquals(Arrays.asList(main1), Arrays.asList(compiler.sourcesChanged(Arrays.asList(source("c.less"))).toArray()));
+    Map<LessSource, SourceCompilationResult> results = compiler.compileChanged();
+    assertEquals(1, results.size());
+    assertEquals(".a {\n  color: green;\n}\n", results.get(main1).getCss());
+    assertEquals(".b {\n  color: blue;\n}\n", compiler.getResult(main2).getCss());
+  }
+
+  @Test
+  public void detectsModifiedFiles() throws IOException {
+    IncrementalLessCompiler compiler = new IncrementalLessCompiler();
+    compiler.addEntryPoint(main1);
+    compiler.addEntryPoint(main2);
+    compiler.compileChanged();
+    assertTrue(compiler.findModifiedFiles().isEmpty());
+
+    File b = new File(directory, "b.less");
+    FileUtils.writeStringToFile(b, ".b { color: black; }");
+    b.setLastModified(b.lastModified() + 10000);
+
+    Map<LessSource, SourceCompilationResult> results = compiler.compileModified();
+    assertEquals(1, results.size());
+    assertEquals(".b {\n  color: black;\n}\n", results.get(main2).getCss());
+    assertTrue(compiler.compileModified().isEmpty());
+  }
+
+  @Test
+  public void errorsDoNotThrow() throws IOException {
+    IncrementalLessCompiler compiler = new IncrementalLessCompiler();
+    compiler.addEntryPoint(main1);
+    write("c.less", "@c: ;;{");
+    SourceCompilationResult result = compiler.compileChanged().get(main1);
+    assertTrue(result.hasErrors());
+
+    write("c.less", "@c: red;");
+    compiler.sourcesChanged(Arrays.asList(source("c.less")));
+    assertFalse(compiler.compileChanged().get(main1).hasErrors());
+  }
+
+  @Test
+  public void importsCollectedByCallerAreNotCleared() {
+    FileSource entryPoint = (FileSource) main1;
+    IncrementalLessCompiler compiler = new IncrementalLessCompiler();
+    compiler.addEntryPoint(entryPoint);
+    compiler.compileChanged();
+    Collection<LessSource> firstImports = entryPoint.getImportedSources();
+    assertEquals(2, firstImports.size());
+
+    compiler.sourcesChanged(Arrays.asList(main1));
+    compiler.compileChanged();
+    assertEquals(2, firstImports.size());
+    assertNotSame(firstImports, entryPoint.getImportedSources());
+    assertEquals(2, entryPoint.getImportedSources().size());
+  }
+
+  private LessSource source(String name) {
+    return new FileSource(new File(directory, name));
+  }
+
+  private void write(String name, String content) throws IOException {
+    FileUtils.writeStringToFile(new File(directory, name), content);
+  }
+
+}
@@ -0,0 +1,90 @@
+package com.github.sommeri.less4j.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.sommeri.less4j.LessSource;
+import com.github.sommeri.less4j.LessSource.FileSource;
+import com.github.sommeri.less4j.core.compiler.LibrarySnapshot;
+
+public class LibrarySnapshotTest {
+
+  private static final String VARIABLES = "@color: red;\n@border: 1px solid @color;\n";
+  private static final String MIXINS = ".bordered(@width: 2px) { border: @width solid @color; }\n" //
+      + ".shade(@c) when (lightness(@c) > 50%) { background: black; }\n" //
+      + ".shade(@c) when (lightness(@c) =< 50%) { background: white; }\n" //
+      + "#namespace { .inner() { color: @color; .deeper() { margin: @border; } } }\n";
+
+  private File directory;
+  private LessCompilerEngine engine = new LessCompilerEngine();
+
+  @Before
+  public void setUp() throws IOException {
+    directory = File.createTempFile("less4j-library", "");
+    directory.delete();
+    directory.mkdirs();
+    write("variables.less", VARIABLES);
+    write("mixins.less", MIXINS);
+    write("library.less", "@import \"variables\";\n@import \"mixins\";\n");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(directory);
+  }
+
+  @Test
+  public void sameResultAsImportedLibrary() throws Exception {
+    LibrarySnapshot library = engine.compileLibrary(source("library.less"));
+    assertTrue(library.getSources().contains(source("mixins.less")));
+
+    assertSameResult(library, "@import \"variables\";\n@import \"mixins\";\n.a { .bordered(); .shade(#eee); border: @border; }\n");
+    assertSameResult(library, "@import \"library\";\n@color: blue;\n.a { .bordered(3px); #namespace > .inner(); }\n");
+    assertSameResult(library, "@import \"library\";\n.b { #namespace > .inner(); .deeper(); }\n.c { .b; }\n");
+  }
+
+  @Test
+  public void libraryWithOutput() throws Exception {
+    write("library.less", "@import \"variables\";\n@import \"mixins\";\n.base { .bordered(); }\n");
+    LibrarySnapshot library = engine.compileLibrary(source("library.less"));
+
+    assertSameResult(library, "@import \"library\";\n.a { .base; color: @color; }\n");
+    assertSameResult(library, "@import \"library\";\n@color: green;\n.a { .bordered(); }\n");
+  }
+
+  @Test
+  public void snapshotIsNotModifiedByCompilation() throws Exception {
+    LibrarySnapshot library = engine.compileLibrary(source("library.less"));
+    String entry = "@import \"library\";\n.a { .bordered(); @color: blue; .shade(@color); }\n";
+    String first = compileWithLibrary(library, entry, "first.less");
+    assertEquals(first, compileWithLibrary(library, entry, "second.less"));
+  }
+
+  private void assertSameResult(LibrarySnapshot library, String entry) throws Exception {
+    write("entry.less", entry);
+    String expected = engine.compile(source("entry.less")).getCss();
+    assertEquals(entry, expected, compileWithLibrary(library, entry, "entry.less"));
+  }
+
+  private String compileWithLibrary(LibrarySnapshot library, String entry, String name) throws Exception {
+    write(name, entry);
+    return engine.compile(source(name), null, library).getCss();
+  }
+
+  private LessSource source(String name) {
+    return new FileSource(new File(directory, name));
+  }
+
+  private void write(String name, String content) throws IOException {
+    FileUtils.writeStringToFile(new File(directory, name), content);
+  }
+
+}
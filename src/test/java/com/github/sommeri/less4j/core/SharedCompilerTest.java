@@ -0,0 +1,56 @@
+package com.github.sommeri.less4j.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.github.sommeri.less4j.LessCompiler;
+
+public class SharedCompilerTest {
+
+  private static final String DIRECTORY = "src/test/resources/less.js-v1.3.3/less/";
+  private static final String[] INPUTS = { "operations.less", "colors.less", "functions.less", "mixins-guards.less", "import.less", "variables.less" };
+  private static final int THREADS = 8;
+  private static final int ROUNDS = 10;
+
+  @Test
+  public void sameResultFromManyThreads() throws Exception {
+    final LessCompiler compiler = new DefaultLessCompiler();
+    List<String> expected = new ArrayList<String>();
+    for (String input : INPUTS) {
+      expected.add(compiler.compile(new File(DIRECTORY + input)).getCss());
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<String>> results = new ArrayList<Future<String>>();
+      for (int round = 0; round < ROUNDS; round++) {
+        for (final String input : INPUTS) {
+          results.add(executor.submit(new Callable<String>() {
+
+            @Override
+            public String call() throws Exception {
+              return compiler.compile(new File(DIRECTORY + input)).getCss();
+            }
+
+          }));
+        }
+      }
+
+      for (int i = 0; i < results.size(); i++) {
+        assertEquals(INPUTS[i % INPUTS.length], expected.get(i % INPUTS.length), results.get(i).get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+}
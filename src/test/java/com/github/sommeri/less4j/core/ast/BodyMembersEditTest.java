@@ -0,0 +1,61 @@
+package com.github.sommeri.less4j.core.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.sommeri.less4j.LessSource;
+import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
+
+public class BodyMembersEditTest {
+
+  private final HiddenTokenAwareTree underlying = new HiddenTokenAwareTree(new LessSource.StringSource(""));
+
+  @Test
+  public void appliesAllChangesInOrder() {
+    Declaration a = declaration("a"), b = declaration("b"), c = declaration("c"), d = declaration("d");
+    GeneralBody body = new GeneralBody(underlying, new ArrayList<ASTCssNode>(Arrays.asList(a, b, c, d)));
+    body.configureParentToAllChilds();
+    List<ASTCssNode> members = body.getMembers();
+
+    Declaration x = declaration("x"), y = declaration("y"), z = declaration("z");
+    BodyMembersEdit edit = body.editMembers();
+    edit.remove(b);
+    edit.replace(c, Arrays.asList(x, y));
+    edit.addAfter(a, Arrays.asList(z));
+    edit.addAfter(a, Arrays.asList(b));
+    assertEquals(4, body.getMembers().size());
+    edit.apply();
+
+    assertSame(members, body.getMembers());
+    assertEquals(Arrays.asList(a, z, b, x, y, d), body.getMembers());
+    assertSame(body, x.getParent());
+    assertSame(body, z.getParent());
+    assertSame(body, b.getParent());
+    assertNull(c.getParent());
+  }
+
+  @Test
+  public void addsAfterMissingMemberToTheEnd() {
+    Declaration a = declaration("a"), missing = declaration("missing"), x = declaration("x");
+    GeneralBody body = new GeneralBody(underlying, new ArrayList<ASTCssNode>(Arrays.asList(a)));
+
+    BodyMembersEdit edit = body.editMembers();
+    edit.remove(missing);
+    edit.addAfter(missing, Arrays.asList(x));
+    edit.apply();
+
+    assertEquals(Arrays.asList(a, x), body.getMembers());
+  }
+
+  private Declaration declaration(String name) {
+    return new Declaration(underlying, name);
+  }
+
+}
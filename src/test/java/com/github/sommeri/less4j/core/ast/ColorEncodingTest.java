@@ -0,0 +1,37 @@
+package com.github.sommeri.less4j.core.ast;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.github.sommeri.less4j.LessSource;
+import com.github.sommeri.less4j.core.ast.ColorExpression.ColorWithAlphaExpression;
+import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
+
+public class ColorEncodingTest {
+
+  private final HiddenTokenAwareTree underlying = new HiddenTokenAwareTree(new LessSource.StringSource(""));
+
+  @Test
+  public void channelsInRange() {
+    assertEquals("#000000", new ColorExpression(underlying, 0, 0, 0).getValue());
+    assertEquals("#0f10ff", new ColorExpression(underlying, 15.4, 16.4, 255).getValue());
+    assertEquals("#00ab0a", new ColorExpression(underlying, -0.3, 170.5, 9.5).getValue());
+  }
+
+  @Test
+  public void fastPathAgreesWithToHex() {
+    ColorExpression color = new ColorExpression(underlying, 0, 0, 0);
+    for (double channel = -20; channel <= 280; channel += 0.05) {
+      String expected = "#" + color.toHex(channel) + color.toHex(15.5) + color.toHex(channel + 0.5);
+      assertEquals(expected, color.encode(channel, 15.5, channel + 0.5));
+    }
+  }
+
+  @Test
+  public void opaqueColorWithAlpha() {
+    assertEquals("#102030", new ColorWithAlphaExpression(underlying, 16, 32, 48, 1.0).getValue());
+    assertEquals("rgba(16, 32, 48, 0.5)", new ColorWithAlphaExpression(underlying, 16, 32, 48, 0.5).getValue());
+  }
+
+}
@@ -0,0 +1,31 @@
+package com.github.sommeri.less4j.core.ast;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.github.sommeri.less4j.LessSource;
+import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
+
+public class CommentsSharingTest {
+
+  private final HiddenTokenAwareTree underlying = new HiddenTokenAwareTree(new LessSource.StringSource(""));
+
+  @Test
+  public void addingCommentsToCloneKeepsOriginal() {
+    IdentifierExpression original = new IdentifierExpression(underlying, "red");
+    original.setOpeningComments(Arrays.asList(new Comment(underlying)));
+
+    IdentifierExpression clone = original.clone();
+    clone.addOpeningComments(Arrays.asList(new Comment(underlying)));
+    clone.addTrailingComments(Arrays.asList(new Comment(underlying)));
+
+    assertEquals(1, original.getOpeningComments().size());
+    assertEquals(0, original.getTrailingComments().size());
+    assertEquals(2, clone.getOpeningComments().size());
+    assertEquals(1, clone.getTrailingComments().size());
+  }
+
+}
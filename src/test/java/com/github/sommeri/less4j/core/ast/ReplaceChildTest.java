@@ -0,0 +1,47 @@
+package com.github.sommeri.less4j.core.ast;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.github.sommeri.less4j.LessSource;
+import com.github.sommeri.less4j.core.compiler.stages.ASTManipulator;
+import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
+
+public class ReplaceChildTest {
+
+  private final HiddenTokenAwareTree underlying = new HiddenTokenAwareTree(new LessSource.StringSource(""));
+
+  @Test
+  public void replacesChildAndParents() {
+    IdentifierExpression left = new IdentifierExpression(underlying, "a");
+    IdentifierExpression right = new IdentifierExpression(underlying, "b");
+    ComposedExpression composed = new ComposedExpression(underlying, left, new ExpressionOperator(underlying, ExpressionOperator.Operator.SOLIDUS), right);
+    composed.configureParentToAllChilds();
+
+    NumberExpression replacement = new NumberExpression(underlying, 1.0, "", null, NumberExpression.Dimension.NUMBER);
+    new ASTManipulator().replace(right, replacement);
+
+    assertSame(left, composed.getLeft());
+    assertSame(replacement, composed.getRight());
+    assertSame(composed, replacement.getParent());
+    assertNull(right.getParent());
+  }
+
+  @Test
+  public void keepsChildIfReplacementDoesNotFit() {
+    ExpressionOperator operator = new ExpressionOperator(underlying, ExpressionOperator.Operator.SOLIDUS);
+    ComposedExpression composed = new ComposedExpression(underlying, new IdentifierExpression(underlying, "a"), operator, new IdentifierExpression(underlying, "b"));
+    composed.configureParentToAllChilds();
+
+    IdentifierExpression replacement = new IdentifierExpression(underlying, "c");
+    new ASTManipulator().replace(operator, replacement);
+
+    assertSame(operator, composed.getOperator());
+    assertSame(composed, operator.getParent());
+    assertFalse(composed.replaceChild(operator, replacement));
+  }
+
+}
@@ -0,0 +1,125 @@
+package com.github.sommeri.less4j.core.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Collection;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.sommeri.less4j.Less4jException;
+import com.github.sommeri.less4j.LessCompiler;
+import com.github.sommeri.less4j.LessCompiler.CompilationResult;
+import com.github.sommeri.less4j.LessCompiler.Configuration;
+import com.github.sommeri.less4j.LessCompiler.Problem;
+import com.github.sommeri.less4j.LessSource.StringSource;
+import com.github.sommeri.less4j.core.DefaultLessCompiler;
+import com.github.sommeri.less4j.core.LessCompilerEngine;
+
+public class DiskImportedAstCacheTest {
+
+  private static final String DIRECTORY = "src/test/resources/less.js-v1.3.3/less/";
+
+  private File cacheDirectory;
+
+  @Before
+  public void setUp() throws IOException {
+    cacheDirectory = File.createTempFile("less4j-ast", "");
+    cacheDirectory.delete();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(cacheDirectory);
+  }
+
+  @Test
+  public void warmCacheCompilesTheSame() {
+    Collection<File> inputs = FileUtils.listFiles(new File(DIRECTORY), new String[] { "less" }, false);
+    LessCompiler plain = new DefaultLessCompiler();
+    long warmHits = 0;
+    for (File input : inputs) {
+      String expected = compile(plain, input);
+
+      DiskImportedAstCache cold = new DiskImportedAstCache(cacheDirectory);
+      assertEquals(input.getPath(), expected, compile(new LessCompilerEngine(cold), input));
+
+      DiskImportedAstCache warm = new DiskImportedAstCache(cacheDirectory);
+      assertEquals(input.getPath(), expected, compile(new LessCompilerEngine(warm), input));
+      assertTrue(input.getPath(), warm.getMisses() <= cold.getMisses());
+      warmHits += warm.getHits();
+    }
+    assertTrue(warmHits >= inputs.size() / 2);
+  }
+
+  @Test
+  public void corruptedEntryIsIgnored() throws Exception {
+    DiskImportedAstCache cache = new DiskImportedAstCache(cacheDirectory);
+    String less = ".a { color: red; }";
+    new LessCompilerEngine(cache).compile(less);
+    File[] entries = cacheDirectory.listFiles();
+    assertEquals(1, entries.length);
+
+    FileUtils.writeStringToFile(entries[0], "garbage");
+    assertNull(cache.get(new StringSource(less), less));
+    assertTrue(cacheDirectory.listFiles().length == 0);
+    assertEquals(".a {\n  color: red;\n}\n", new LessCompilerEngine(cache).compile(less).getCss());
+  }
+
+  @Test
+  public void foreignClassesAreRejected() throws Exception {
+    DiskImportedAstCache cache = new DiskImportedAstCache(cacheDirectory);
+    String less = ".a { color: red; }";
+    new LessCompilerEngine(cache).compile(less);
+    File[] entries = cacheDirectory.listFiles();
+
+    ObjectOutputStream output = new ObjectOutputStream(new FileOutputStream(entries[0]));
+    output.writeObject(new File("foreign"));
+    output.close();
+    assertNull(cache.get(new StringSource(less), less));
+    assertTrue(cacheDirectory.listFiles().length == 0);
+  }
+
+  @Test
+  public void changedClassesAreRejected() throws Exception {
+    DiskImportedAstCache cache = new DiskImportedAstCache(cacheDirectory);
+    String less = ".a { color: red; }";
+    new LessCompilerEngine(cache).compile(less);
+    File[] entries = cacheDirectory.listFiles();
+
+    // pretend the entry was written when ASTCssNode field had another name
+    String stream = new String(FileUtils.readFileToByteArray(entries[0]), "ISO-8859-1");
+    FileUtils.writeByteArrayToFile(entries[0], stream.replace("trailingComments", "trailingCommentz").getBytes("ISO-8859-1"));
+
+    assertNull(cache.get(new StringSource(less), less));
+    assertTrue(cacheDirectory.listFiles().length == 0);
+  }
+
+  private String compile(LessCompiler compiler, File input) {
+    Configuration configuration = new Configuration();
+    configuration.setCssResultLocation(new File(input.getPath().replace(".less", ".css")));
+    try {
+      CompilationResult result = compiler.compile(input, configuration);
+      return result.getCss() + result.getSourceMap() + describe(result.getWarnings());
+    } catch (Less4jException ex) {
+      return ex.getPartialResult().getCss() + describe(ex.getErrors());
+    }
+  }
+
+  private String describe(Collection<Problem> problems) {
+    StringBuilder result = new StringBuilder();
+    for (Problem problem : problems) {
+      result.append("\n").append(problem.getSource()).append(problem.getLine()).append(":").append(problem.getCharacter()).append(" ").append(problem.getMessage());
+    }
+    return result.toString();
+  }
+
+}
@@ -0,0 +1,117 @@
+package com.github.sommeri.less4j.core.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import com.github.sommeri.less4j.LessCompiler;
+import com.github.sommeri.less4j.LessCompiler.Problem;
+import com.github.sommeri.less4j.LessSource;
+import com.github.sommeri.less4j.LessSource.StringSource;
+import com.github.sommeri.less4j.core.DefaultLessCompiler;
+import com.github.sommeri.less4j.core.LessCompilerEngine;
+import com.github.sommeri.less4j.core.ast.StyleSheet;
+import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
+
+public class ImportedAstCacheTest {
+
+  private static final String IMPORTING_FILE = "src/test/resources/less.js-v1.3.3/less/import.less";
+
+  @Test
+  public void cachedImportsCompileTheSame() throws Exception {
+    File input = new File(IMPORTING_FILE);
+    String expected = new DefaultLessCompiler().compile(input).getCss();
+
+    LruImportedAstCache cache = new LruImportedAstCache();
+    LessCompiler compiler = new DefaultLessCompiler(new LessCompilerEngine(cache));
+    assertEquals(expected, compiler.compile(input).getCss());
+    assertEquals(0, cache.getHits());
+
+    assertEquals(expected, compiler.compile(input).getCss());
+    assertEquals(cache.getMisses(), cache.getHits());
+  }
+
+  @Test
+  public void changedContentIsParsedAgain() throws Exception {
+    File directory = createTempDirectory();
+    File imported = new File(directory, "imported.less");
+    File main = new File(directory, "main.less");
+    FileUtils.writeStringToFile(main, "@import \"imported\";");
+    FileUtils.writeStringToFile(imported, ".a { color: red; }");
+
+    LruImportedAstCache cache = new LruImportedAstCache();
+    LessCompiler compiler = new DefaultLessCompiler(new LessCompilerEngine(cache));
+    compiler.compile(main);
+
+    FileUtils.writeStringToFile(imported, ".a { color: blue; }");
+    String css = compiler.compile(main).getCss();
+    assertEquals(".a {\n  color: blue;\n}\n", css);
+    // only the main file did not change
+    assertEquals(1, cache.getHits());
+
+    FileUtils.deleteDirectory(directory);
+  }
+
+  @Test
+  public void cachedInterpolatedMediaCompilesTwice() throws Exception {
+    File directory = createTempDirectory();
+    File imported = new File(directory, "media.less");
+    File main = new File(directory, "main.less");
+    FileUtils.writeStringToFile(main, "@import \"media\";");
+    FileUtils.writeStringToFile(imported, "@tablet: ~\"screen and (max-width: 100px)\";\n@media @tablet { h3 { a: b; } }\n@media screen and @tablet { h4 { a: b; } }");
+
+    LruImportedAstCache cache = new LruImportedAstCache();
+    LessCompiler compiler = new DefaultLessCompiler(new LessCompilerEngine(cache));
+    String expected = compiler.compile(main).getCss();
+    assertEquals(expected, compiler.compile(main).getCss());
+    assertEquals(expected, compiler.compile(main).getCss());
+    assertEquals(4, cache.getHits());
+
+    FileUtils.deleteDirectory(directory);
+  }
+
+  @Test
+  public void leastRecentlyUsedEvicted() {
+    LruImportedAstCache cache = new LruImportedAstCache(2);
+    LessSource first = new StringSource("first");
+    LessSource second = new StringSource("second");
+    LessSource third = new StringSource("third");
+
+    cache.put(first, parsed("first"));
+    cache.put(second, parsed("second"));
+    assertNotNull(cache.get(first, "first"));
+    cache.put(third, parsed("third"));
+
+    assertEquals(2, cache.size());
+    assertNotNull(cache.get(first, "first"));
+    assertNull(cache.get(second, "second"));
+    assertNotNull(cache.get(third, "third"));
+  }
+
+  @Test
+  public void handsOutCopies() {
+    ParsedImport parsed = parsed("content");
+    assertNotSame(parsed.getStyleSheet(), parsed.getStyleSheet());
+  }
+
+  private ParsedImport parsed(String content) {
+    StyleSheet styleSheet = new StyleSheet(new HiddenTokenAwareTree(new StringSource(content)));
+    return new ParsedImport(content, styleSheet, new ArrayList<Problem>());
+  }
+
+  private File createTempDirectory() throws IOException {
+    File directory = File.createTempFile("less4j-cache", "");
+    directory.delete();
+    directory.mkdirs();
+    return directory;
+  }
+
+}
@@ -0,0 +1,68 @@
+package com.github.sommeri.less4j.core.compiler;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.github.sommeri.less4j.core.LessCompilerEngine;
+
+public class CacheStatisticsTest {
+
+  private static final String GUARDED = ".m(@a) when (@a > 1) { width: @a; }\n" //
+      + ".a { .m(2); }\n" //
+      + ".b { .m(2); }\n" //
+      + ".c { .m(3); }\n";
+
+  private static final String INTERPOLATED_GUARD = "@name: a;\n" //
+      + ".m() when (\"@{name}\" = \"a\") { width: 1; }\n" //
+      + ".a { .m(); }\n";
+
+  private static final String NAMESPACES = "#ns { .m() { width: 1; } }\n" //
+      + ".a { #ns > .m(); }\n" //
+      + ".b { #ns > .m(); }\n";
+
+  @Test
+  public void countsGuardsAndExpansions() throws Exception {
+    LessCompilerEngine engine = new LessCompilerEngine();
+    engine.compile(GUARDED);
+
+    CacheStatistics statistics = engine.getCacheStatistics();
+    assertEquals(1, statistics.getHits(CacheStatistics.GUARDS));
+    assertEquals(2, statistics.getMisses(CacheStatistics.GUARDS));
+    assertEquals(1, statistics.getHits(CacheStatistics.MIXIN_EXPANSIONS));
+    assertEquals(2, statistics.getMisses(CacheStatistics.MIXIN_EXPANSIONS));
+
+    engine.compile(GUARDED);
+    assertEquals(2, statistics.getHits(CacheStatistics.GUARDS));
+    assertEquals(4, statistics.getMisses(CacheStatistics.GUARDS));
+  }
+
+  @Test
+  public void countsUncacheableGuards() throws Exception {
+    LessCompilerEngine engine = new LessCompilerEngine();
+    engine.compile(INTERPOLATED_GUARD);
+    assertEquals(1, engine.getCacheStatistics().getUncacheable(CacheStatistics.GUARDS));
+    assertEquals(0, engine.getCacheStatistics().getHits(CacheStatistics.GUARDS));
+  }
+
+  @Test
+  public void countsCompiledNamespaces() throws Exception {
+    LessCompilerEngine engine = new LessCompilerEngine();
+    engine.compile(NAMESPACES);
+    assertEquals(1, engine.getCacheStatistics().getHits(CacheStatistics.COMPILED_NAMESPACES));
+    assertEquals(1, engine.getCacheStatistics().getMisses(CacheStatistics.COMPILED_NAMESPACES));
+  }
+
+  @Test
+  public void reportsAllCaches() {
+    CacheStatistics statistics = new CacheStatistics();
+    statistics.add(CacheStatistics.GUARDS, 1, 2, 3);
+    CacheStatistics other = new CacheStatistics();
+    other.add(CacheStatistics.GUARDS, 1, 0, 0);
+    other.add(CacheStatistics.COMPILED_NAMESPACES, 4, 5, 0);
+
+    statistics.add(other);
+    assertEquals("guards: 2 hits 2 misses 3 uncacheable, compiled namespaces: 4 hits 5 misses 0 uncacheable", statistics.report());
+  }
+
+}
@@ -0,0 +1,83 @@
+package com.github.sommeri.less4j.core.compiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.sommeri.less4j.LessSource;
+import com.github.sommeri.less4j.core.LessCompilerEngine;
+import com.github.sommeri.less4j.core.ast.ASTCssNodeType;
+import com.github.sommeri.less4j.core.ast.StyleSheet;
+import com.github.sommeri.less4j.core.parser.ANTLRParser;
+import com.github.sommeri.less4j.core.parser.ASTBuilder;
+import com.github.sommeri.less4j.core.problems.ProblemsHandler;
+
+public class StageTimingsTest {
+
+  private static final String LESS = "@charset \"UTF-8\";\n" //
+      + "@charset \"ISO-8859-1\";\n" //
+      + ".a { .b { color: red; } }\n" //
+      + "@import url(\"x.css\");\n";
+
+  @Test
+  public void measuresAllStages() {
+    LessSource source = new LessSource.StringSource(LESS);
+    ProblemsHandler problemsHandler = new ProblemsHandler();
+    LessToCssCompiler compiler = new LessToCssCompiler(problemsHandler);
+    StyleSheet styleSheet = (StyleSheet) compiler.compileToCss(parse(source, problemsHandler), source, null);
+
+    StageTimings timings = compiler.getTimings();
+    List<String> stages = new ArrayList<String>(timings.getNanos().keySet());
+    assertEquals(Arrays.asList("imports", "references", "expressions", "media", "nested rule sets", "top level", "validation"), stages);
+    assertTrue(timings.report().startsWith("imports: "));
+
+    List<ASTCssNodeType> types = new ArrayList<ASTCssNodeType>();
+    for (int i = 0; i < styleSheet.getMembers().size(); i++) {
+      types.add(styleSheet.getMembers().get(i).getType());
+    }
+    assertEquals(Arrays.asList(ASTCssNodeType.CHARSET_DECLARATION, ASTCssNodeType.IMPORT, ASTCssNodeType.RULE_SET, ASTCssNodeType.RULE_SET), types);
+  }
+
+  @Test
+  public void engineSumsAllCompilations() throws Exception {
+    LessCompilerEngine engine = new LessCompilerEngine();
+    assertTrue(engine.getTimings().getNanos().isEmpty());
+    engine.compile(LESS);
+    long references = engine.getTimings().getNanos().get("references");
+    engine.compile(LESS);
+    assertTrue(engine.getTimings().getNanos().get("references") > references);
+    assertEquals(7, engine.getTimings().getNanos().size());
+  }
+
+  @Test
+  public void addsOtherTimings() {
+    StageTimings timings = new StageTimings();
+    timings.stop("first", timings.start());
+    StageTimings other = new StageTimings();
+    other.stop("second", other.start());
+    other.stop("first", other.start());
+
+    timings.add(other);
+    assertEquals(Arrays.asList("first", "second"), new ArrayList<String>(timings.getNanos().keySet()));
+  }
+
+  @Test
+  public void accumulatesRepeatedStages() {
+    StageTimings timings = new StageTimings();
+    long start = timings.stop("stage", timings.start());
+    timings.stop("stage", start);
+    assertEquals(1, timings.getNanos().size());
+    assertEquals(0, timings.getMillis("missing"));
+  }
+
+  private StyleSheet parse(LessSource source, ProblemsHandler problemsHandler) {
+    ANTLRParser.ParseResult parsed = new ANTLRParser().parseStyleSheet(LESS, source);
+    return new ASTBuilder(problemsHandler).parse(parsed.getTree());
+  }
+
+}
@@ -0,0 +1,46 @@
+package com.github.sommeri.less4j.core.compiler.expressions.strings;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class StringTemplateTest {
+
+  private final StringInterpolator interpolator = new StringInterpolator();
+
+  @Test
+  public void splitsLiteralsAndMatches() {
+    String value = "a@{b}c@{d}";
+    StringTemplate template = interpolator.compile(value);
+
+    assertEquals(2, template.getMatchesCount());
+    assertEquals("a", template.getLiteral(0));
+    assertEquals("c", template.getLiteral(1));
+    assertEquals("", template.getLiteral(2));
+    assertEquals("@b", template.getMatch(0).getName());
+    assertEquals("@{d}", template.getMatch(1).getFullMatch());
+  }
+
+  @Test
+  public void doesNotReferenceParsedString() {
+    String value = "@{b}";
+    StringTemplate template = interpolator.compile(value);
+    assertNotSame(value, template.getMatch(0).getFullMatch());
+  }
+
+  @Test
+  public void templatesAreSharedByInterpolators() {
+    StringTemplate template = interpolator.getTemplate("shared @{a}");
+    assertSame(template, new StringInterpolator().getTemplate(new String("shared @{a}")));
+  }
+
+  @Test
+  public void stringWithoutInterpolationHasNoMatches() {
+    assertFalse(interpolator.getTemplate("plain @{").hasMatches());
+    assertFalse(interpolator.getTemplate("@{a@b}").hasMatches());
+  }
+
+}
@@ -0,0 +1,50 @@
+package com.github.sommeri.less4j.core.compiler.scopes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+
+public class ScopeCopyTest {
+
+  @Test
+  public void parentsChainCopyLeavesOutSiblings() {
+    Scope root = Scope.createDefaultScope(null);
+    Scope sibling = Scope.createScope(null, root);
+    Scope.createScope(null, sibling);
+    Scope scope = Scope.createScope(null, root);
+
+    Scope copy = scope.copyWithParentsChain();
+    Scope rootCopy = copy.getParent();
+    assertEquals(1, rootCopy.getChilds().size());
+    assertSame(copy, rootCopy.firstChild());
+    assertTrue(copy.seesLocalDataOf(scope));
+    assertEquals(2, root.getChilds().size());
+  }
+
+  @Test
+  public void joinedCopyKeepsSubtreeAndOriginals() {
+    Scope mixinRoot = Scope.createDefaultScope(null);
+    Scope mixinScope = Scope.createScope(null, mixinRoot);
+    Scope present = Scope.createScope(null, mixinScope);
+    Scope removed = Scope.createScope(null, mixinScope);
+    removed.removedFromTree();
+
+    Scope callerRoot = Scope.createDefaultScope(null);
+    Scope caller = Scope.createScope(null, callerRoot);
+
+    Scope joined = mixinScope.copyJoinedTo(caller);
+    assertEquals(1, joined.getChilds().size());
+    assertTrue(joined.firstChild().seesLocalDataOf(present));
+    assertTrue(joined.getRootScope().seesLocalDataOf(callerRoot));
+    assertNotSame(caller, joined.getParent().getParent());
+
+    assertSame(mixinRoot, mixinScope.getParent());
+    assertEquals(1, callerRoot.getChilds().size());
+    assertEquals(2, mixinScope.getChilds().size());
+  }
+
+}
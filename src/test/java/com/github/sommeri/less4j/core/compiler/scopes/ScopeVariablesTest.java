@@ -0,0 +1,88 @@
+package com.github.sommeri.less4j.core.compiler.scopes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.github.sommeri.less4j.LessSource;
+import com.github.sommeri.less4j.core.ast.Expression;
+import com.github.sommeri.less4j.core.ast.IdentifierExpression;
+import com.github.sommeri.less4j.core.ast.Variable;
+import com.github.sommeri.less4j.core.compiler.expressions.ExpressionEvaluator;
+import com.github.sommeri.less4j.core.compiler.scopes.InScopeSnapshotRunner.ITask;
+import com.github.sommeri.less4j.core.parser.HiddenTokenAwareTree;
+import com.github.sommeri.less4j.core.problems.ProblemsHandler;
+
+public class ScopeVariablesTest {
+
+  private final HiddenTokenAwareTree underlying = new HiddenTokenAwareTree(new LessSource.StringSource(""));
+  private final Expression red = new IdentifierExpression(underlying, "red");
+  private final Expression blue = new IdentifierExpression(underlying, "blue");
+
+  @Test
+  public void nearerDefinitionHidesRememberedValue() {
+    Scope root = Scope.createDefaultScope(null);
+    final Scope middle = Scope.createScope(null, root);
+    final Scope leaf = Scope.createScope(null, middle);
+    root.registerVariable("@color", red);
+    assertSame(red, leaf.getValue("@color"));
+    assertSame(red, leaf.getValue("@color"));
+
+    middle.registerVariable("@color", blue);
+    assertSame(blue, leaf.getValue("@color"));
+  }
+
+  @Test
+  public void snapshotValuesAreForgottenWhenDiscarded() {
+    Scope root = Scope.createDefaultScope(null);
+    final Scope middle = Scope.createScope(null, root);
+    final Scope leaf = Scope.createScope(null, middle);
+    InScopeSnapshotRunner.runInLocalDataSnapshot(middle, new ITask() {
+
+      @Override
+      public void run() {
+        middle.registerVariable("@color", blue);
+        assertSame(blue, leaf.getValue("@color"));
+      }
+    });
+    assertNull(leaf.getValue("@color"));
+  }
+
+  @Test
+  public void copiesSeeChangesOfSharedData() {
+    Scope root = Scope.createDefaultScope(null);
+    Scope leaf = Scope.createScope(null, root);
+    Scope copy = leaf.copyWithParentsChain();
+    root.registerVariable("@color", red);
+    assertSame(red, copy.getValue("@color"));
+
+    root.registerVariable("@color", blue);
+    assertSame(blue, copy.getValue("@color"));
+  }
+
+  @Test
+  public void evaluatedValuesAreRememberedUntilModification() {
+    Scope root = Scope.createDefaultScope(null);
+    Scope leaf = Scope.createScope(null, root);
+    root.registerVariable("@color", red);
+    root.registerVariable("@alias", new Variable(underlying, "@color"));
+    ExpressionEvaluator evaluator = new ExpressionEvaluator(leaf, new ProblemsHandler());
+    Variable reference = new Variable(underlying, "@alias");
+
+    assertEquals("red", evaluate(evaluator, reference));
+    assertEquals("red", evaluate(evaluator, reference));
+    assertEquals(1, leaf.getEvaluationHits());
+    assertEquals(1, leaf.getEvaluationMisses());
+
+    root.registerVariable("@color", blue);
+    assertEquals("blue", evaluate(evaluator, reference));
+    assertEquals(2, leaf.getEvaluationMisses());
+  }
+
+  private String evaluate(ExpressionEvaluator evaluator, Variable reference) {
+    return ((IdentifierExpression) evaluator.evaluate(reference)).getValue();
+  }
+
+}
@@ -0,0 +1,56 @@
+package com.github.sommeri.less4j.core.compiler.stages;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.github.sommeri.less4j.LessSource;
+import com.github.sommeri.less4j.core.ast.ASTCssNodeType;
+import com.github.sommeri.less4j.core.ast.Declaration;
+import com.github.sommeri.less4j.core.ast.RuleSet;
+import com.github.sommeri.less4j.core.ast.StyleSheet;
+import com.github.sommeri.less4j.core.parser.ANTLRParser;
+import com.github.sommeri.less4j.core.parser.ASTBuilder;
+import com.github.sommeri.less4j.core.problems.ProblemsHandler;
+
+public class ConstantsFolderTest {
+
+  private static final String LESS = "@w: (960px / 12);\n" //
+      + ".a {\n" //
+      + "  width: (1px + 2px);\n" //
+      + "  font: 12px/1.5 arial;\n" //
+      + "  x: (1px + @w) lighten(#336699, 20%);\n" //
+      + "}\n";
+
+  @Test
+  public void foldsOnlyLiteralSubexpressions() {
+    StyleSheet styleSheet = parse(LESS);
+
+    ConstantsFolder folder = new ConstantsFolder();
+    folder.foldConstants(styleSheet);
+    assertEquals(3, folder.getFolded());
+
+    RuleSet ruleSet = (RuleSet) styleSheet.getMembers().get(1);
+    Declaration width = (Declaration) ruleSet.getBody().getMembers().get(0);
+    assertEquals(ASTCssNodeType.NUMBER, width.getExpression().getType());
+    // the same position evaluation without folding would give
+    assertEquals(3, width.getExpression().getSourceLine());
+    assertEquals(11, width.getExpression().getSourceColumn());
+  }
+
+  @Test
+  public void leavesFailingExpressionsToEvaluation() {
+    StyleSheet styleSheet = parse("@unused: hsv(-30, 50%, 50%);\n");
+
+    ConstantsFolder folder = new ConstantsFolder();
+    folder.foldConstants(styleSheet);
+    assertEquals(0, folder.getFolded());
+  }
+
+  private StyleSheet parse(String less) {
+    LessSource source = new LessSource.StringSource(less);
+    ANTLRParser.ParseResult parsed = new ANTLRParser().parseStyleSheet(less, source);
+    return new ASTBuilder(new ProblemsHandler()).parse(parsed.getTree());
+  }
+
+}
@@ -0,0 +1,45 @@
+package com.github.sommeri.less4j.core.compiler.stages;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.sommeri.less4j.LessSource;
+import com.github.sommeri.less4j.core.ast.MixinReference;
+import com.github.sommeri.less4j.core.ast.RuleSet;
+import com.github.sommeri.less4j.core.ast.StyleSheet;
+import com.github.sommeri.less4j.core.compiler.scopes.FullMixinDefinition;
+import com.github.sommeri.less4j.core.compiler.scopes.Scope;
+import com.github.sommeri.less4j.core.parser.ANTLRParser;
+import com.github.sommeri.less4j.core.parser.ASTBuilder;
+import com.github.sommeri.less4j.core.problems.ProblemsHandler;
+
+public class MixinReferenceFinderTest {
+
+  private static final String LESS = "#ns { .m() { width: 1; } }\n" //
+      + ".a { #ns > .m(); }\n";
+
+  @Test
+  public void findsNamespacedMixinWithoutCompiledNamespaces() {
+    ProblemsHandler problemsHandler = new ProblemsHandler();
+    StyleSheet styleSheet = parse(problemsHandler);
+    Scope scope = new InitialScopeExtractor().extractScope(styleSheet);
+    MixinReference reference = (MixinReference) ((RuleSet) styleSheet.getMembers().get(1)).getBody().getMembers().get(0);
+
+    MixinReferenceFinder finder = new MixinReferenceFinder(new ReferencesSolver(problemsHandler), new AstNodesStack());
+    List<FullMixinDefinition> mixins = finder.getNearestMixins(scope, reference);
+
+    assertEquals(1, mixins.size());
+    assertTrue(finder.foundNamespace());
+  }
+
+  private StyleSheet parse(ProblemsHandler problemsHandler) {
+    LessSource source = new LessSource.StringSource(LESS);
+    ANTLRParser.ParseResult parsed = new ANTLRParser().parseStyleSheet(LESS, source);
+    return new ASTBuilder(problemsHandler).parse(parsed.getTree());
+  }
+
+}
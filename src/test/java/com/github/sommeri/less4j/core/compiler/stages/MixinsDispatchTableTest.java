@@ -0,0 +1,106 @@
+package com.github.sommeri.less4j.core.compiler.stages;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.sommeri.less4j.LessSource;
+import com.github.sommeri.less4j.core.ast.ASTCssNode;
+import com.github.sommeri.less4j.core.ast.Expression;
+import com.github.sommeri.less4j.core.ast.ReusableStructure;
+import com.github.sommeri.less4j.core.ast.StyleSheet;
+import com.github.sommeri.less4j.core.compiler.expressions.PatternsComparator;
+import com.github.sommeri.less4j.core.compiler.scopes.FullMixinDefinition;
+import com.github.sommeri.less4j.core.parser.ANTLRParser;
+import com.github.sommeri.less4j.core.parser.ASTBuilder;
+import com.github.sommeri.less4j.core.problems.ProblemsHandler;
+
+public class MixinsDispatchTableTest {
+
+  private static final String LESS = ".m(dark; @c) { }\n" //
+      + ".m(light; @c) { }\n" //
+      + ".m(@any; @c) { }\n" //
+      + ".m(1px) { }\n" //
+      + ".m(-1) { }\n" //
+      + ".m(@rest...) { }\n";
+
+  private final PatternsComparator comparator = new PatternsComparator();
+
+  @Test
+  public void candidatesMatchNumberOfArgumentsAndFirstPattern() {
+    List<FullMixinDefinition> mixins = parseMixins();
+    MixinsDispatchTable.Index index = new MixinsDispatchTable(comparator).getIndex(mixins);
+
+    assertEquals(candidates(mixins, 0, 2, 5), index.getCandidates(2, key(mixins, 0)));
+    assertEquals(candidates(mixins, 1, 2, 5), index.getCandidates(2, key(mixins, 1)));
+    assertEquals(candidates(mixins, 2, 5), index.getCandidates(2, null));
+    assertEquals(candidates(mixins, 3, 5), index.getCandidates(1, key(mixins, 3)));
+    assertEquals(candidates(mixins, 4, 5), index.getCandidates(1, key(mixins, 4)));
+    // pattern parameters are not mandatory
+    assertEquals(candidates(mixins, 0, 5), index.getCandidates(1, key(mixins, 0)));
+    assertEquals(candidates(mixins, 5), index.getCandidates(3, key(mixins, 0)));
+
+    assertTrue(index.hasFirstPatterns(2));
+    assertFalse(index.hasFirstPatterns(3));
+  }
+
+  @Test
+  public void indexIsRebuiltWhenMixinsGrow() {
+    List<FullMixinDefinition> mixins = parseMixins();
+    List<FullMixinDefinition> first = new ArrayList<FullMixinDefinition>(mixins.subList(0, 1));
+    MixinsDispatchTable table = new MixinsDispatchTable(comparator);
+
+    MixinsDispatchTable.Index index = table.getIndex(first);
+    assertSame(index, table.getIndex(first));
+    assertSame(index.getCandidates(2, key(mixins, 0)), index.getCandidates(2, key(mixins, 0)));
+
+    first.add(mixins.get(2));
+    MixinsDispatchTable.Index rebuilt = table.getIndex(first);
+    assertEquals(candidates(mixins, 0, 2), rebuilt.getCandidates(2, key(mixins, 0)));
+  }
+
+  @Test
+  public void listsWithTheSameNameKeepTheirIndexes() {
+    List<FullMixinDefinition> mixins = parseMixins();
+    List<FullMixinDefinition> top = new ArrayList<FullMixinDefinition>(mixins.subList(0, 2));
+    List<FullMixinDefinition> nested = new ArrayList<FullMixinDefinition>(mixins.subList(2, 4));
+    MixinsDispatchTable table = new MixinsDispatchTable(comparator);
+
+    MixinsDispatchTable.Index topIndex = table.getIndex(top);
+    MixinsDispatchTable.Index nestedIndex = table.getIndex(nested);
+    assertSame(topIndex, table.getIndex(top));
+    assertSame(nestedIndex, table.getIndex(nested));
+  }
+
+  private String key(List<FullMixinDefinition> mixins, int position) {
+    return comparator.patternKey((Expression) mixins.get(position).getMixin().getParameters().get(0));
+  }
+
+  private List<FullMixinDefinition> candidates(List<FullMixinDefinition> mixins, Integer... positions) {
+    List<FullMixinDefinition> result = new ArrayList<FullMixinDefinition>();
+    for (int position : Arrays.asList(positions)) {
+      result.add(mixins.get(position));
+    }
+    return result;
+  }
+
+  private List<FullMixinDefinition> parseMixins() {
+    LessSource source = new LessSource.StringSource(LESS);
+    ANTLRParser.ParseResult parsed = new ANTLRParser().parseStyleSheet(LESS, source);
+    StyleSheet styleSheet = new ASTBuilder(new ProblemsHandler()).parse(parsed.getTree());
+
+    List<FullMixinDefinition> result = new ArrayList<FullMixinDefinition>();
+    for (ASTCssNode member : styleSheet.getMembers()) {
+      result.add(new FullMixinDefinition((ReusableStructure) member, null));
+    }
+    return result;
+  }
+
+}
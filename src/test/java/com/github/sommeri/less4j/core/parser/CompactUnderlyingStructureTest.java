@@ -0,0 +1,53 @@
+package com.github.sommeri.less4j.core.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.github.sommeri.less4j.LessSource;
+import com.github.sommeri.less4j.core.ast.ASTCssNode;
+import com.github.sommeri.less4j.core.ast.Declaration;
+import com.github.sommeri.less4j.core.ast.ReusableStructure;
+import com.github.sommeri.less4j.core.ast.RuleSet;
+import com.github.sommeri.less4j.core.ast.StyleSheet;
+import com.github.sommeri.less4j.core.problems.ProblemsHandler;
+
+public class CompactUnderlyingStructureTest {
+
+  private static final String LESS = ".m() when (@a > 1) { x: y; }\n" //
+      + ".a {\n" //
+      + "  /* comment */ color: red;\n" //
+      + "}\n";
+
+  @Test
+  public void keepsOnlyPositions() {
+    LessSource source = new LessSource.StringSource(LESS);
+    ANTLRParser.ParseResult parsed = new ANTLRParser().parseStyleSheet(LESS, source);
+    StyleSheet styleSheet = new ASTBuilder(new ProblemsHandler()).parse(parsed.getTree());
+    assertDetached(styleSheet);
+
+    ReusableStructure mixin = (ReusableStructure) styleSheet.getMembers().get(0);
+    assertDetached(mixin.getGuards().get(0));
+
+    RuleSet ruleSet = (RuleSet) styleSheet.getMembers().get(1);
+    Declaration declaration = (Declaration) ruleSet.getBody().getMembers().get(0);
+    assertEquals(3, declaration.getSourceLine());
+    assertEquals(17, declaration.getSourceColumn());
+    assertSame(source, declaration.getSource());
+    assertEquals(3, declaration.getOpeningComments().get(0).getSourceLine());
+    assertDetached(declaration.getOpeningComments().get(0));
+  }
+
+  private void assertDetached(ASTCssNode node) {
+    HiddenTokenAwareTree underlying = node.getUnderlyingStructure();
+    assertEquals(0, underlying.getChildCount());
+    assertNull(underlying.getParent());
+    assertNull(underlying.getToken() == null ? null : underlying.getToken().getInputStream());
+    for (ASTCssNode kid : node.getChilds()) {
+      assertDetached(kid);
+    }
+  }
+
+}
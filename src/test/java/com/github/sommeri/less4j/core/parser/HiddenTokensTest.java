@@ -0,0 +1,62 @@
+package com.github.sommeri.less4j.core.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.antlr.runtime.CommonToken;
+import org.junit.Test;
+
+import com.github.sommeri.less4j.LessSource;
+import com.github.sommeri.less4j.core.ast.Comment;
+import com.github.sommeri.less4j.core.ast.Declaration;
+import com.github.sommeri.less4j.core.ast.RuleSet;
+import com.github.sommeri.less4j.core.ast.StyleSheet;
+import com.github.sommeri.less4j.core.problems.ProblemsHandler;
+
+public class HiddenTokensTest {
+
+  private final LessSource source = new LessSource.StringSource("");
+
+  @Test
+  public void addsAndChopsTokens() {
+    HiddenTokenAwareTree tree = new HiddenTokenAwareTree(source);
+    assertTrue(tree.getPreceding().isEmpty());
+    assertTrue(tree.getFollowing().isEmpty());
+    assertTrue(tree.getOrphans().isEmpty());
+
+    CommonToken comment = new CommonToken(LessLexer.COMMENT, "/* a */");
+    CommonToken newLine = new CommonToken(LessLexer.NEW_LINE, "\n");
+    CommonToken last = new CommonToken(LessLexer.COMMENT, "/* b */");
+    tree.addPreceding(Arrays.asList(newLine, last));
+    tree.addBeforePreceding(Arrays.asList(comment));
+
+    List<CommonToken> chopped = tree.chopPreceedingUpToLastOfType(LessLexer.NEW_LINE);
+    assertEquals(Arrays.asList(comment, newLine), chopped);
+    assertEquals(Arrays.asList(last), tree.getPreceding());
+
+    tree.removePreceding();
+    assertTrue(tree.getPreceding().isEmpty());
+  }
+
+  @Test
+  public void associatesCommentsWithNodes() {
+    String less = ".a { /* before */ b: c; /* after */\n}\n";
+    ANTLRParser.ParseResult parsed = new ANTLRParser().parseStyleSheet(less, new LessSource.StringSource(less));
+    StyleSheet styleSheet = new ASTBuilder(new ProblemsHandler()).parse(parsed.getTree());
+
+    RuleSet ruleSet = (RuleSet) styleSheet.getMembers().get(0);
+    Declaration declaration = (Declaration) ruleSet.getBody().getMembers().get(0);
+    assertComments(declaration.getOpeningComments(), "/* before */");
+    assertComments(declaration.getTrailingComments(), "/* after */");
+    assertTrue(ruleSet.getOpeningComments().isEmpty());
+  }
+
+  private void assertComments(List<Comment> comments, String expected) {
+    assertEquals(1, comments.size());
+    assertEquals(expected, comments.get(0).getComment());
+  }
+
+}